@@ -0,0 +1,68 @@
+package com.treecore.pro.config;
+
+import java.time.temporal.Temporal;
+import java.util.Map;
+
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+
+/**
+ * 2차 캐시 항목 크기 추정기
+ * Caffeine JCache 영역의 크기 제한을 바이트 단위로 적용하기 위해 캐시 항목이 차지하는 힙 크기를 대략 계산합니다.
+ * 정확한 측정 대신 분해된 엔티티 상태의 값 종류별 크기를 더하므로 항목을 넣을 때의 비용이 작습니다.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+    /** 캐시 노드, 키 객체와 참조가 차지하는 크기 */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private static final int OBJECT_HEADER = 16;
+
+    private static final int REFERENCE = 4;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        return ENTRY_OVERHEAD + sizeOf(value);
+    }
+
+    private static int sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof AbstractReadWriteAccess.Item) {
+            return OBJECT_HEADER + 16 + sizeOf(((AbstractReadWriteAccess.Item) value).getValue());
+        }
+        if (value instanceof CacheEntry) {
+            return OBJECT_HEADER + 16 + sizeOf(((CacheEntry) value).getDisassembledState());
+        }
+        if (value instanceof Object[]) {
+            Object[] values = (Object[]) value;
+            int size = OBJECT_HEADER + REFERENCE * values.length;
+            for (Object element : values) {
+                size += sizeOf(element);
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            // 구조화된 캐시 항목(use_structured_entries)은 속성 이름 -> 값 맵이다
+            int size = OBJECT_HEADER + 32;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += 32 + sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof String) {
+            // 한글이 섞인 문자열은 UTF-16으로 저장되므로 글자당 2바이트로 계산한다
+            return OBJECT_HEADER + 24 + 2 * ((String) value).length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return OBJECT_HEADER + 8;
+        }
+        if (value instanceof Temporal) {
+            return 72;
+        }
+        return 64;
+    }
+}
@@ -5,6 +5,7 @@ import java.util.Properties;
 import javax.sql.DataSource;
 
 import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -17,6 +18,7 @@ import org.springframework.orm.hibernate5.LocalSessionFactoryBean;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import com.treecore.pro.interceptor.HibernateQueryInterceptor;
+import com.treecore.pro.service.TreeChangePublisher;
 
 @Configuration
 @EnableTransactionManagement
@@ -37,15 +39,27 @@ public class HibernateConfig {
     @Value("${spring.jpa.properties.hibernate.cache.use_second_level_cache:true}")
     private String hibernateUseSecondLevelCache;
     
-    @Value("${spring.jpa.properties.hibernate.cache.use_query_cache:true}")
+    @Value("${spring.jpa.properties.hibernate.cache.use_query_cache:false}")
     private String hibernateUseQueryCache;
     
-    @Value("${spring.jpa.properties.hibernate.cache.region.factory_class:org.hibernate.cache.ehcache.EhCacheRegionFactory}")
+    @Value("${spring.jpa.properties.hibernate.cache.region.factory_class:org.hibernate.cache.jcache.internal.JCacheRegionFactory}")
     private String hibernateCacheRegionFactoryClass;
+    
+    @Value("${spring.jpa.properties.hibernate.javax.cache.provider:com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider}")
+    private String hibernateCacheProvider;
+    
+    @Value("${spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy:create}")
+    private String hibernateMissingCacheStrategy;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private String hibernateJdbcBatchSize;
 
     @Autowired
     private DataSource dataSource;
 
+    @Autowired
+    private ObjectProvider<TreeChangePublisher> treeChangePublisher;
+
     @Bean
     public LocalSessionFactoryBean sessionFactory() {
         LocalSessionFactoryBean sessionFactory = new LocalSessionFactoryBean();
@@ -71,7 +85,7 @@ public class HibernateConfig {
     
     @Bean
     public HibernateQueryInterceptor hibernateQueryInterceptor() {
-        return new HibernateQueryInterceptor();
+        return new HibernateQueryInterceptor(treeChangePublisher);
     }
 
     private Properties hibernateProperties() {
@@ -85,6 +99,13 @@ public class HibernateConfig {
         properties.put("hibernate.cache.use_second_level_cache", hibernateUseSecondLevelCache);
         properties.put("hibernate.cache.use_query_cache", hibernateUseQueryCache);
         properties.put("hibernate.cache.region.factory_class", hibernateCacheRegionFactoryClass);
+        // JCache 제공자, 설정에 없는 영역은 application.conf의 기본 설정으로 만든다
+        properties.put("hibernate.javax.cache.provider", hibernateCacheProvider);
+        properties.put("hibernate.javax.cache.missing_cache_strategy", hibernateMissingCacheStrategy);
+        
+        // 배치 설정 (여러 노드를 한 번에 추가할 때 INSERT를 묶어서 전송)
+        properties.put("hibernate.jdbc.batch_size", hibernateJdbcBatchSize);
+        properties.put("hibernate.order_inserts", "true");
         
         // 기타 설정
         properties.put("hibernate.current_session_context_class", "org.springframework.orm.hibernate5.SpringSessionContext");
@@ -0,0 +1,13 @@
+package com.treecore.pro.config;
+
+/**
+ * 트리 구조 저장 방식
+ */
+public enum TreeStorageEngine {
+
+    /** c_left/c_right 경계값으로 구조를 표현 (읽기 위주 트리) */
+    NESTED_SET,
+
+    /** 조상/자손/깊이 클로저 테이블로 구조를 표현 (쓰기 위주 트리) */
+    CLOSURE_TABLE
+}
@@ -0,0 +1,45 @@
+package com.treecore.pro.config;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.treecore.pro.interceptor.RouteTableInterceptor;
+
+/**
+ * 트리 테이블별 저장 방식 결정기
+ * treecore.tree.closure-tables 에 나열된 테이블은 클로저 테이블 방식, 나머지는 Nested Set 방식을 사용합니다.
+ */
+@Component
+public class TreeStorageEngineResolver {
+
+    private final Set<String> closureTables = new HashSet<>();
+
+    public TreeStorageEngineResolver(@Value("${treecore.tree.closure-tables:}") List<String> closureTables) {
+        for (String tableName : closureTables) {
+            if (!tableName.trim().isEmpty()) {
+                this.closureTables.add(tableName.trim());
+            }
+        }
+    }
+
+    /**
+     * 테이블의 저장 방식을 반환합니다.
+     * @param tableName 트리 노드 테이블 이름
+     * @return 저장 방식
+     */
+    public TreeStorageEngine getEngine(String tableName) {
+        return closureTables.contains(tableName) ? TreeStorageEngine.CLOSURE_TABLE : TreeStorageEngine.NESTED_SET;
+    }
+
+    /**
+     * 현재 요청의 트리 테이블이 클로저 테이블 방식인지 확인합니다.
+     * @return 클로저 테이블 방식이면 true
+     */
+    public boolean isClosureTable() {
+        return getEngine(RouteTableInterceptor.getCurrentTreeNodeTableName()) == TreeStorageEngine.CLOSURE_TABLE;
+    }
+}
@@ -1,10 +1,16 @@
 package com.treecore.pro.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,9 +21,19 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.treecore.pro.interceptor.RouteTableInterceptor;
 import com.treecore.pro.model.TreeNode;
+import com.treecore.pro.model.TreeNodeChildSummary;
+import com.treecore.pro.model.TreeNodeSearch;
+import com.treecore.pro.model.TreeNodeStats;
+import com.treecore.pro.model.TreeNodeSummary;
 import com.treecore.pro.service.TreeNodeService;
+import com.treecore.pro.service.TreeVersionRegistry;
+import com.treecore.pro.service.TreeWriteQueue;
 
 /**
  * 트리 노드 컨트롤러
@@ -26,20 +42,58 @@ import com.treecore.pro.service.TreeNodeService;
 @RequestMapping("/api/nodes")
 public class TreeNodeController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    
+    /** 한 번에 펼칠 수 있는 최대 폴더 수 */
+    private static final int MAX_EXPAND_PARENTS = 500;
+    
+    /** 한 번에 조회할 수 있는 최대 breadcrumb 수 */
+    private static final int MAX_BREADCRUMB_NODES = 500;
+    
+    /** 한 번에 조회할 수 있는 최대 노드 수 */
+    private static final int MAX_MULTI_LOAD_IDS = 1000;
+
     @Autowired
     @Qualifier("treeNodeServiceImpl")
     private TreeNodeService treeNodeService;
     
+    @Autowired
+    private TreeWriteQueue treeWriteQueue;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TreeVersionRegistry treeVersions;
+    
     /**
      * 모든 노드를 조회합니다.
-     * @return 모든 노드 목록
+     * @param request 조건부 요청 확인용 요청
+     * @return 모든 노드 목록, 트리가 바뀌지 않았으면 304
      */
     @GetMapping
-    public ResponseEntity<List<TreeNode>> getAllNodes() {
+    public ResponseEntity<List<TreeNode>> getAllNodes(WebRequest request) {
+        if (isTreeNotModified(request)) {
+            return null;
+        }
         List<TreeNode> nodes = treeNodeService.getAllNodes();
         return ResponseEntity.ok(nodes);
     }
     
+    /**
+     * 여러 ID의 노드를 한 번에 조회합니다.
+     * 2차 캐시에 있는 노드는 캐시에서 읽고 나머지만 IN 쿼리로 조회합니다.
+     * @param ids 노드 ID 목록 (예: ids=3,8,15)
+     * @return 요청 순서대로 조회된 노드 목록 (존재하지 않는 ID는 제외)
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<TreeNode>> getNodesByIds(@RequestParam List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_MULTI_LOAD_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(treeNodeService.getNodesByIds(ids));
+    }
+    
     /**
      * ID로 노드를 조회합니다.
      * @param id 노드 ID
@@ -86,41 +140,144 @@ public class TreeNodeController {
     /**
      * 노드를 삭제합니다.
      * @param id 삭제할 노드 ID
+     * @param chunkSize 지정하면 자손을 이 개수씩 나누어 별도 트랜잭션으로 삭제
      * @return 응답 상태
      */
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteNode(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteNode(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer chunkSize) {
         TreeNode existingNode = treeNodeService.getNodeById(id);
         if (existingNode == null) {
             return ResponseEntity.notFound().build();
         }
         
-        treeNodeService.deleteNode(id);
+        if (chunkSize != null) {
+            try {
+                treeNodeService.deleteNodeInChunks(id, chunkSize);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        } else {
+            treeNodeService.deleteNode(id);
+        }
         return ResponseEntity.ok().build();
     }
     
     /**
      * 자식 노드를 조회합니다.
      * @param parentId 부모 노드 ID
-     * @return 자식 노드 목록
+     * @param request 조건부 요청 확인용 요청
+     * @return 자식 노드 목록, 트리가 바뀌지 않았으면 304
      */
     @GetMapping("/children/{parentId}")
-    public ResponseEntity<List<TreeNode>> getChildNodes(@PathVariable Long parentId) {
+    public ResponseEntity<List<TreeNode>> getChildNodes(@PathVariable Long parentId, WebRequest request) {
+        if (isTreeNotModified(request)) {
+            return null;
+        }
         List<TreeNode> children = treeNodeService.getChildNodes(parentId);
         return ResponseEntity.ok(children);
     }
     
     /**
-     * 제목으로 노드를 검색합니다.
+     * 펼쳐진 여러 폴더의 자식 노드를 한 번에 조회합니다.
+     * 각 자식에는 하위 노드 수(descendantCount)와 자식 존재 여부(hasChildren)가 포함됩니다.
+     * @param parentIds 부모 노드 ID 목록 (예: parentIds=1,5,9)
+     * @param request 조건부 요청 확인용 요청
+     * @return 부모 ID별 자식 노드 요약 목록, 트리가 바뀌지 않았으면 304
+     */
+    @GetMapping(value = "/children", params = "parentIds")
+    public ResponseEntity<Map<Long, List<TreeNodeChildSummary>>> expandChildren(@RequestParam List<Long> parentIds,
+            WebRequest request) {
+        if (parentIds.isEmpty() || parentIds.size() > MAX_EXPAND_PARENTS) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isTreeNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(treeNodeService.expandChildren(parentIds));
+    }
+    
+    /**
+     * 자식 노드를 요약 형태(ID, 부모, 경계값, 레벨, 제목, 타입)로 조회합니다.
+     * @param parentId 부모 노드 ID
+     * @param request 조건부 요청 확인용 요청
+     * @return 자식 노드 요약 목록, 트리가 바뀌지 않았으면 304
+     */
+    @GetMapping(value = "/children/{parentId}", params = "view=summary")
+    public ResponseEntity<List<TreeNodeSummary>> getChildSummaries(@PathVariable Long parentId, WebRequest request) {
+        if (isTreeNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(treeNodeService.getChildSummaries(parentId));
+    }
+    
+    /**
+     * 제목으로 노드를 검색합니다. 결과는 관련도 순(전체 일치, 앞부분 일치, 부분 일치)입니다.
      * @param title 검색할 제목
+     * @param limit 지정하면 상위 limit개만 반환
      * @return 검색 결과 목록
      */
     @GetMapping("/search")
-    public ResponseEntity<List<TreeNode>> searchNodesByTitle(@RequestParam String title) {
-        List<TreeNode> nodes = treeNodeService.searchNodesByTitle(title);
+    public ResponseEntity<List<TreeNode>> searchNodesByTitle(@RequestParam String title,
+            @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<TreeNode> nodes = limit == null
+            ? treeNodeService.searchNodesByTitle(title)
+            : treeNodeService.searchNodesByTitle(title, limit);
         return ResponseEntity.ok(nodes);
     }
     
+    /**
+     * 검색 조건으로 노드를 페이지 단위로 조회합니다.
+     * afterLeft/afterId에 이전 페이지 마지막 노드의 c_left/c_id를 넘기면 OFFSET 없이 이어서 조회합니다.
+     * 다음 페이지 여부와 커서는 X-Has-Next, X-Next-Left, X-Next-Id 헤더로,
+     * 전체 건수는 skipCount=false일 때만 X-Total-Count 헤더로 반환합니다.
+     * @param title 검색할 제목 (부분 일치)
+     * @param parentId 부모 노드 ID
+     * @param page 페이지 번호 (키셋 커서가 없을 때만 사용)
+     * @param size 페이지 크기
+     * @param afterLeft 이전 페이지 마지막 노드의 c_left
+     * @param afterId 이전 페이지 마지막 노드의 c_id
+     * @param skipCount 전체 건수 조회 생략 여부
+     * @return 검색 결과 목록
+     */
+    @GetMapping("/search/page")
+    public ResponseEntity<List<TreeNode>> searchNodes(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) Long parentId,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) Long afterLeft,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "false") boolean skipCount) {
+        if (size <= 0 || page <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        TreeNodeSearch search = new TreeNodeSearch();
+        search.setTitle(title);
+        search.setParentId(parentId);
+        search.setPageInfo(page, size);
+        search.setLastLeft(afterLeft);
+        search.setLastId(afterId);
+        search.setSkipCount(skipCount);
+        
+        List<TreeNode> nodes = treeNodeService.searchNodes(search);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .header("X-Has-Next", String.valueOf(search.isHasNext()));
+        if (!skipCount) {
+            response.header("X-Total-Count", String.valueOf(search.getTotalRecordCount()));
+        }
+        if (search.isHasNext() && !nodes.isEmpty()) {
+            TreeNode last = nodes.get(nodes.size() - 1);
+            response.header("X-Next-Left", String.valueOf(last.getC_left()))
+                .header("X-Next-Id", String.valueOf(last.getC_id()));
+        }
+        return response.body(nodes);
+    }
+    
     /**
      * 루트 노드를 생성합니다.
      * @param title 루트 노드 제목
@@ -144,6 +301,41 @@ public class TreeNodeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(id);
     }
     
+    /**
+     * 자식 노드 추가 요청을 병합 큐에 넣습니다. 같은 트리에 동시에 들어온 추가 요청들과 함께 한 번의 경계값 이동으로 처리됩니다.
+     * @param parentId 부모 노드 ID
+     * @param node 추가할 자식 노드
+     * @return 생성된 자식 노드 ID
+     */
+    @PostMapping(value = "/children/{parentId}", params = "coalesce=true")
+    public CompletableFuture<ResponseEntity<Long>> addChildNodeCoalesced(@PathVariable Long parentId, @RequestBody TreeNode node) {
+        return treeWriteQueue.submitChild(parentId, node)
+                .thenApply(id -> ResponseEntity.status(HttpStatus.CREATED).body(id))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (cause instanceof IllegalArgumentException) {
+                        return ResponseEntity.badRequest().<Long>build();
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+    
+    /**
+     * 여러 자식 노드를 한 번에 추가합니다. 각 노드의 children에 하위 노드를 함께 담을 수 있습니다.
+     * @param parentId 부모 노드 ID
+     * @param nodes 추가할 자식 노드 목록
+     * @return 생성된 최상위 자식 노드 ID 목록
+     */
+    @PostMapping("/children/{parentId}/batch")
+    public ResponseEntity<List<Long>> addChildNodes(@PathVariable Long parentId, @RequestBody List<TreeNode> nodes) {
+        try {
+            List<Long> ids = treeNodeService.addChildNodes(parentId, nodes);
+            return ResponseEntity.status(HttpStatus.CREATED).body(ids);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
     /**
      * 노드를 이동합니다.
      * @param id 이동할 노드 ID
@@ -187,25 +379,124 @@ public class TreeNodeController {
     /**
      * 노드의 자손을 조회합니다.
      * @param id 조회할 노드 ID
-     * @return 자손 노드 목록
+     * @param depth 지정하면 노드 자신과 depth 단계 아래까지만 조회
+     * @param request 조건부 요청 확인용 요청
+     * @return 자손 노드 목록, 트리가 바뀌지 않았으면 304
      */
     @GetMapping("/{id}/descendants")
-    public ResponseEntity<List<TreeNode>> getDescendants(@PathVariable Long id) {
+    public ResponseEntity<List<TreeNode>> getDescendants(@PathVariable Long id,
+            @RequestParam(required = false) Integer depth, WebRequest request) {
+        if (depth != null && depth < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isTreeNotModified(request)) {
+            return null;
+        }
         try {
-            List<TreeNode> descendants = treeNodeService.getDescendants(id);
+            List<TreeNode> descendants = depth == null
+                ? treeNodeService.getDescendants(id)
+                : treeNodeService.getDescendants(id, depth);
             return ResponseEntity.ok(descendants);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
+    /**
+     * 노드와 모든 자손을 요약 형태로 조회합니다.
+     * @param id 조회할 노드 ID
+     * @param request 조건부 요청 확인용 요청
+     * @return 자손 노드 요약 목록, 트리가 바뀌지 않았으면 304
+     */
+    @GetMapping(value = "/{id}/descendants", params = "view=summary")
+    public ResponseEntity<List<TreeNodeSummary>> getDescendantSummaries(@PathVariable Long id, WebRequest request) {
+        if (isTreeNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(treeNodeService.getDescendantSummaries(id));
+    }
+    
+    /**
+     * 노드 아래 하위 트리의 통계를 조회합니다.
+     * 하위 노드 수, 최대 깊이, 리프 수, 타입별 노드 수를 DB 집계로 계산하므로 자손 목록을 내려받지 않습니다.
+     * @param id 기준 노드 ID
+     * @return 하위 트리 통계
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<TreeNodeStats> getSubtreeStats(@PathVariable Long id) {
+        TreeNodeStats stats = treeNodeService.getSubtreeStats(id);
+        if (stats != null) {
+            return ResponseEntity.ok(stats);
+        }
+        return ResponseEntity.notFound().build();
+    }
+    
+    /**
+     * 노드와 모든 자손을 NDJSON(한 줄에 노드 하나)으로 스트리밍합니다.
+     * 행을 읽는 즉시 전송하므로 하위 트리 크기와 관계없이 메모리 사용량이 일정합니다.
+     * @param id 조회할 노드 ID
+     * @return 노드 스트림
+     */
+    @GetMapping(value = "/{id}/descendants", params = "stream=true", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamDescendants(@PathVariable Long id) {
+        if (treeNodeService.getNodeById(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        // 응답 본문은 다른 스레드에서 작성되므로 트리 테이블 이름을 미리 정해 둔다
+        String tableName = RouteTableInterceptor.getCurrentTreeNodeTableName();
+        StreamingResponseBody body = out -> {
+            RouteTableInterceptor.setCurrentTreeNodeTableName(tableName);
+            try {
+                treeNodeService.streamDescendants(id, node -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(node));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } finally {
+                RouteTableInterceptor.clearCurrentTreeNodeTableName();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+    
+    /**
+     * 노드와 모든 자손을 중첩된 children 구조로 조회합니다.
+     * @param id 하위 트리의 최상위 노드 ID
+     * @param depth 지정하면 depth 단계 아래까지만 포함
+     * @param request 조건부 요청 확인용 요청
+     * @return 최상위 노드, 트리가 바뀌지 않았으면 304
+     */
+    @GetMapping("/{id}/tree")
+    public ResponseEntity<TreeNode> getSubtree(@PathVariable Long id,
+            @RequestParam(required = false) Integer depth, WebRequest request) {
+        if (depth != null && depth < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isTreeNotModified(request)) {
+            return null;
+        }
+        TreeNode subtree = depth == null ? treeNodeService.getSubtree(id) : treeNodeService.getSubtree(id, depth);
+        if (subtree != null) {
+            return ResponseEntity.ok(subtree);
+        }
+        return ResponseEntity.notFound().build();
+    }
+    
     /**
      * 노드의 조상을 조회합니다.
      * @param id 조회할 노드 ID
-     * @return 조상 노드 목록
+     * @param request 조건부 요청 확인용 요청
+     * @return 조상 노드 목록, 트리가 바뀌지 않았으면 304
      */
     @GetMapping("/{id}/ancestors")
-    public ResponseEntity<List<TreeNode>> getAncestors(@PathVariable Long id) {
+    public ResponseEntity<List<TreeNode>> getAncestors(@PathVariable Long id, WebRequest request) {
+        if (isTreeNotModified(request)) {
+            return null;
+        }
         try {
             List<TreeNode> ancestors = treeNodeService.getAncestors(id);
             return ResponseEntity.ok(ancestors);
@@ -213,4 +504,31 @@ public class TreeNodeController {
             return ResponseEntity.notFound().build();
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 여러 노드의 조상 경로(breadcrumb)를 한 번에 조회합니다.
+     * @param ids 조회할 노드 ID 목록 (예: ids=5,12,40)
+     * @param request 조건부 요청 확인용 요청
+     * @return 노드 ID별 조상 노드 요약 목록 (루트부터 노드 자신까지), 트리가 바뀌지 않았으면 304
+     */
+    @GetMapping(value = "/ancestors", params = "ids")
+    public ResponseEntity<Map<Long, List<TreeNodeSummary>>> getAncestorsOf(@RequestParam List<Long> ids,
+            WebRequest request) {
+        if (ids.isEmpty() || ids.size() > MAX_BREADCRUMB_NODES) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (isTreeNotModified(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(treeNodeService.getAncestorsOf(ids));
+    }
+    
+    /**
+     * 현재 트리 버전을 ETag로 설정하고, If-None-Match와 같으면 응답 상태를 304로 설정합니다.
+     * 서비스 호출(세션, 트랜잭션) 전에 확인하므로 바뀌지 않은 트리는 DB 조회 없이 응답합니다.
+     * 버전은 조회 전에 읽으므로, 조회 도중 커밋된 변경은 다음 요청에서 새 ETag로 받게 됩니다.
+     */
+    private boolean isTreeNotModified(WebRequest request) {
+        return request.checkNotModified(treeVersions.currentETag());
+    }
+}
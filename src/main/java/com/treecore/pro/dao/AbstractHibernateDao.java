@@ -1,16 +1,28 @@
 package com.treecore.pro.dao;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Predicate;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Hibernate DAO의 기본 추상 클래스
@@ -19,6 +31,9 @@ import org.springframework.beans.factory.annotation.Autowired;
  */
 public abstract class AbstractHibernateDao<T, ID extends Serializable> {
 
+    /** 어떤 엔티티 테이블에도 속하지 않는 쿼리 공간, 이 공간만 지정한 네이티브 변경은 2차 캐시 영역을 비우지 않는다 */
+    private static final String UNCACHED_QUERY_SPACE = "uncached_query_space";
+
     private SessionFactory sessionFactory;
 
     /**
@@ -161,12 +176,152 @@ public abstract class AbstractHibernateDao<T, ID extends Serializable> {
 
     /**
      * HQL 쿼리를 실행하여 대량 업데이트를 수행합니다.
+     * 파라미터는 순서대로 ?1, ?2 ... 위치 파라미터에 바인딩됩니다.
      * @param queryString HQL 쿼리
      * @param values 쿼리 파라미터
      * @return 영향을 받은 레코드 수
      */
     public int bulkUpdate(String queryString, Object... values) {
-        return getCurrentSession().createQuery(queryString).executeUpdate();
+        org.hibernate.query.Query<?> query = getCurrentSession().createQuery(queryString);
+        if (values != null) {
+            for (int i = 0; i < values.length; i++) {
+                query.setParameter(i + 1, values[i]);
+            }
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * 네이티브 SQL을 실행하여 대량 변경을 수행합니다.
+     * 파라미터는 순서대로 ?1, ?2 ... 위치 파라미터에 바인딩되며, 2차 캐시는 이 DAO의 엔티티 영역만 무효화됩니다.
+     * @param sql 네이티브 SQL
+     * @param values 쿼리 파라미터
+     * @return 영향을 받은 레코드 수
+     */
+    protected int nativeUpdate(String sql, Object... values) {
+        return nativeUpdate(getEntityClass(), sql, values);
+    }
+
+    /**
+     * 다른 엔티티의 테이블을 변경하는 네이티브 SQL을 실행합니다. 2차 캐시는 entityClass의 영역이 무효화됩니다.
+     * @param entityClass 변경되는 테이블의 엔티티 클래스
+     * @param sql 네이티브 SQL
+     * @param values 쿼리 파라미터
+     * @return 영향을 받은 레코드 수
+     */
+    protected int nativeUpdate(Class<?> entityClass, String sql, Object... values) {
+        NativeQuery<?> query = getCurrentSession().createNativeQuery(sql);
+        query.addSynchronizedEntityClass(entityClass);
+        if (values != null) {
+            for (int i = 0; i < values.length; i++) {
+                query.setParameter(i + 1, values[i]);
+            }
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * 네이티브 SQL로 대량 변경을 수행하고, 변경되는 엔티티의 2차 캐시 항목만 트랜잭션이 끝날 때까지 잠급니다.
+     * nativeUpdate와 달리 엔티티 영역 전체를 무효화하지 않으므로 호출하는 쪽이 변경될 행의 ID를 미리 구해 넘겨야 합니다.
+     * 잠긴 항목에는 다른 트랜잭션이 조회한 값을 넣을 수 없고, 잠금이 풀린 뒤에도 커밋 전에 시작한 조회의 값은 거부되므로
+     * 이전 경계값이 다시 캐시되지 않습니다.
+     * @param affectedIds 변경되는 엔티티의 ID 목록, null이면 HQL 대량 변경처럼 엔티티 영역 전체를 비움
+     * @param sql 네이티브 SQL
+     * @param values 쿼리 파라미터
+     * @return 영향을 받은 레코드 수
+     */
+    protected int nativeUpdateLocking(Collection<ID> affectedIds, String sql, Object... values) {
+        return nativeUpdateLocking(getEntityClass(), affectedIds, sql, values);
+    }
+
+    /**
+     * 다른 엔티티의 테이블을 네이티브 SQL로 변경하고, 그 엔티티의 2차 캐시 항목만 트랜잭션이 끝날 때까지 잠급니다.
+     * @param entityClass 변경되는 테이블의 엔티티 클래스
+     * @param affectedIds 변경되는 엔티티의 ID 목록, null이면 entityClass의 영역 전체를 비움
+     * @param sql 네이티브 SQL
+     * @param values 쿼리 파라미터
+     * @return 영향을 받은 레코드 수
+     */
+    protected int nativeUpdateLocking(Class<?> entityClass, Collection<?> affectedIds, String sql, Object... values) {
+        // 쿼리 공간이 엔티티와 겹치지 않으면 자동 flush도 일어나지 않으므로, 대기 중인 변경을 먼저 반영한다
+        getCurrentSession().flush();
+        NativeQuery<?> query = getCurrentSession().createNativeQuery(sql);
+        query.addSynchronizedQuerySpace(UNCACHED_QUERY_SPACE);
+        if (values != null) {
+            for (int i = 0; i < values.length; i++) {
+                query.setParameter(i + 1, values[i]);
+            }
+        }
+        
+        SharedSessionContractImplementor session = (SharedSessionContractImplementor) getCurrentSession();
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(entityClass);
+        EntityDataAccess cacheAccess = persister.canWriteToCache() ? persister.getCacheAccessStrategy() : null;
+        if (cacheAccess == null) {
+            return query.executeUpdate();
+        }
+        
+        Runnable release;
+        if (affectedIds == null) {
+            // BulkOperationCleanupAction과 같은 방식으로 영역 전체를 비운다
+            SoftLock regionLock = cacheAccess.lockRegion();
+            cacheAccess.removeAll(session);
+            release = () -> cacheAccess.unlockRegion(regionLock);
+        } else {
+            List<Object> keys = new ArrayList<>(affectedIds.size());
+            List<SoftLock> locks = new ArrayList<>(affectedIds.size());
+            for (Object id : affectedIds) {
+                Object key = cacheAccess.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+                keys.add(key);
+                locks.add(cacheAccess.lockItem(session, key, null));
+            }
+            release = () -> {
+                for (int i = 0; i < keys.size(); i++) {
+                    cacheAccess.unlockItem(session, keys.get(i), locks.get(i));
+                }
+            };
+        }
+        
+        int updated;
+        try {
+            updated = query.executeUpdate();
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    release.run();
+                }
+            });
+        } else {
+            release.run();
+        }
+        return updated;
+    }
+
+    /**
+     * 네이티브 INSERT ... SELECT에서 엔티티의 새 ID를 발급하는 SQL 표현식을 반환합니다.
+     * HQL INSERT ... SELECT가 ID를 채울 때와 같은 시퀀스를 사용합니다.
+     * @return 다음 시퀀스 값을 읽는 SQL 표현식
+     */
+    protected String nextIdExpression() {
+        SessionFactoryImplementor factory = sessionFactory.unwrap(SessionFactoryImplementor.class);
+        IdentifierGenerator generator = factory.getMetamodel().entityPersister(getEntityClass()).getIdentifierGenerator();
+        if (!(generator instanceof SequenceStyleGenerator)) {
+            throw new IllegalStateException("Native insert requires a sequence identifier: " + getEntityClass().getName());
+        }
+        String sequenceName = ((SequenceStyleGenerator) generator).getDatabaseStructure().getName();
+        return factory.getJdbcServices().getDialect().getSelectSequenceNextValString(sequenceName);
+    }
+
+    /**
+     * 2차 캐시를 사용하는지 확인합니다.
+     * @return 사용하면 true
+     */
+    protected boolean isSecondLevelCacheEnabled() {
+        return sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled();
     }
 
     /**
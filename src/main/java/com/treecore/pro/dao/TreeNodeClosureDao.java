@@ -0,0 +1,89 @@
+package com.treecore.pro.dao;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 트리 노드 클로저 테이블 DAO 인터페이스
+ * 클로저 테이블 방식 트리의 구조 변경을 담당합니다. 구조 변경 시 c_left/c_right 경계값은 이동하지 않습니다.
+ */
+public interface TreeNodeClosureDao extends Serializable {
+
+    /**
+     * 새 노드의 클로저 행(자기 자신 및 부모의 모든 조상과의 쌍)을 추가합니다.
+     * @param nodeId 새 노드 ID
+     * @param parentId 부모 노드 ID
+     */
+    void insertNode(Long nodeId, Long parentId);
+
+    /**
+     * 하위 트리를 새 부모 아래로 옮깁니다.
+     * 하위 트리 바깥의 조상들과의 쌍을 지우고 새 부모의 조상들과의 쌍을 추가합니다.
+     * @param nodeId 이동할 하위 트리의 최상위 노드 ID
+     * @param newParentId 새 부모 노드 ID
+     */
+    void moveSubtree(Long nodeId, Long newParentId);
+
+    /**
+     * 노드와 모든 자손을 트리 노드 테이블과 클로저 테이블에서 삭제합니다.
+     * @param nodeId 삭제할 하위 트리의 최상위 노드 ID
+     * @return 삭제된 노드 수
+     */
+    int deleteSubtree(Long nodeId);
+
+    /**
+     * 하위 트리에서 깊이가 가장 깊은 자손부터 최대 limit 개의 ID를 조회합니다. 노드 자신은 포함하지 않습니다.
+     * 이 순서로 지우면 각 노드가 자신의 자손보다 나중에 삭제됩니다.
+     * @param nodeId 하위 트리의 최상위 노드 ID
+     * @param limit 최대 조회 건수
+     * @return 자손 노드 ID 목록
+     */
+    List<Long> findDeepestDescendantIds(Long nodeId, int limit);
+
+    /**
+     * 자손이 이미 모두 삭제된 노드들을 트리 노드 테이블과 클로저 테이블에서 삭제합니다.
+     * @param nodeIds 삭제할 노드 ID 목록
+     * @return 삭제된 노드 수
+     */
+    int deleteNodes(List<Long> nodeIds);
+
+    /**
+     * 하위 트리 전체를 새 부모 아래로 복제합니다.
+     * 노드, 클로저 행, 제목 색인을 각각 한 번의 INSERT ... SELECT로 만들며 노드 수만큼 쿼리를 실행하지 않습니다.
+     * 복제된 최상위 노드의 c_position/c_order는 원본 값 그대로이므로 호출하는 쪽에서 맞춰야 합니다.
+     * @param nodeId 복제할 하위 트리의 최상위 노드 ID
+     * @param newParentId 새 부모 노드 ID
+     * @param levelDelta 레벨 변화량
+     * @return 복제된 최상위 노드 ID
+     */
+    Long copySubtree(Long nodeId, Long newParentId, Integer levelDelta);
+
+    /**
+     * 하위 트리 노드들의 c_path를 부모의 경로로부터 다시 계산합니다. 최상위 노드의 경로는 바꾸지 않습니다.
+     * @param nodeId 하위 트리의 최상위 노드 ID
+     * @return 영향을 받은 레코드 수
+     */
+    int rebuildPaths(Long nodeId);
+
+    /**
+     * 하위 트리 노드들의 c_level 값을 delta 만큼 조정합니다.
+     * @param nodeId 하위 트리의 최상위 노드 ID
+     * @param delta 레벨 변화량
+     * @return 영향을 받은 레코드 수
+     */
+    int shiftLevels(Long nodeId, Integer delta);
+
+    /**
+     * descendantId가 ancestorId 자신이거나 그 자손인지 확인합니다.
+     * @param ancestorId 조상 노드 ID
+     * @param descendantId 자손 노드 ID
+     * @return 자신이거나 자손이면 true
+     */
+    boolean isDescendant(Long ancestorId, Long descendantId);
+
+    /**
+     * c_parentid 값으로부터 클로저 테이블 전체를 다시 만듭니다.
+     * 기존 트리를 클로저 테이블 방식으로 전환할 때 사용합니다.
+     */
+    void rebuild();
+}
@@ -0,0 +1,238 @@
+package com.treecore.pro.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.treecore.pro.model.TreeNode;
+import com.treecore.pro.model.TreeNodeClosure;
+import com.treecore.pro.model.TreeNodeClosureId;
+
+/**
+ * 트리 노드 클로저 테이블 데이터 접근 구현체
+ * 복합 키를 가진 INSERT ... SELECT는 네이티브 SQL로 실행하며, 테이블 이름은 라우팅 인터셉터가 트리별로 바꿔 준다.
+ */
+@Repository
+public class TreeNodeClosureDaoImpl extends AbstractHibernateDao<TreeNodeClosure, TreeNodeClosureId> implements TreeNodeClosureDao {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * ?1 노드의 하위 트리 노드 ID를 담는 파생 테이블
+     * MySQL은 DELETE/UPDATE 대상 테이블을 서브쿼리에서 직접 읽지 못하므로(1093) DISTINCT로 먼저 구체화한다.
+     */
+    private static final String SUBTREE_IDS =
+            "(SELECT DISTINCT c_descendant FROM tree_node_closure WHERE c_ancestor = ?1)";
+
+    /** copySubtree가 원본 ID를 음수로 표시해 둔 복제본의 파생 테이블, SUBTREE_IDS와 같은 이유로 구체화한다 */
+    private static final String COPIED_IDS =
+            "(SELECT DISTINCT c_id, c_left FROM tree_node WHERE c_left < 0)";
+
+    /** 제목 n-gram 색인, 하위 트리 삭제 시 함께 갱신 */
+    @Autowired
+    private TreeNodeNgramDao ngramDao;
+
+    /** tree_node를 변경할 때 항목별로 캐시를 잠글 최대 노드 수, 넘으면 TreeNode 캐시 영역 전체를 비운다 */
+    @Value("${treecore.cache.lock-item-limit:1000}")
+    private int cacheLockLimit;
+
+    @Autowired
+    public TreeNodeClosureDaoImpl(SessionFactory sessionFactory) {
+        setSessionFactory(sessionFactory);
+    }
+
+    @Override
+    protected Class<TreeNodeClosure> getEntityClass() {
+        return TreeNodeClosure.class;
+    }
+
+    @Override
+    public void insertNode(Long nodeId, Long parentId) {
+        nativeUpdate("INSERT INTO tree_node_closure (c_ancestor, c_descendant, c_depth) " +
+                "SELECT c_ancestor, ?1, c_depth + 1 FROM tree_node_closure WHERE c_descendant = ?2",
+                nodeId, parentId);
+        nativeUpdate("INSERT INTO tree_node_closure (c_ancestor, c_descendant, c_depth) VALUES (?1, ?1, 0)",
+                nodeId);
+    }
+
+    @Override
+    public void moveSubtree(Long nodeId, Long newParentId) {
+        // 하위 트리 바깥의 조상들과 하위 트리 노드들 사이의 쌍 제거
+        nativeUpdate("DELETE FROM tree_node_closure WHERE " +
+                "c_descendant IN (SELECT s.c_descendant FROM " + SUBTREE_IDS + " s) " +
+                "AND c_ancestor NOT IN (SELECT s.c_descendant FROM " + SUBTREE_IDS + " s)",
+                nodeId);
+        
+        // 새 부모의 조상들 x 하위 트리 노드들의 쌍 추가
+        nativeUpdate("INSERT INTO tree_node_closure (c_ancestor, c_descendant, c_depth) " +
+                "SELECT a.c_ancestor, d.c_descendant, a.c_depth + d.c_depth + 1 " +
+                "FROM tree_node_closure a, tree_node_closure d " +
+                "WHERE a.c_descendant = ?2 AND d.c_ancestor = ?1",
+                nodeId, newParentId);
+    }
+
+    @Override
+    public int deleteSubtree(Long nodeId) {
+        // 클로저 행을 지우기 전에 제목 색인과 하위 트리 노드부터 삭제
+        ngramDao.removeSubtree(nodeId);
+        int deleted = bulkUpdate("DELETE FROM TreeNode WHERE c_id IN " +
+                "(SELECT c.c_descendant FROM TreeNodeClosure c WHERE c.c_ancestor = ?1)",
+                nodeId);
+        nativeUpdate("DELETE FROM tree_node_closure WHERE c_descendant IN " +
+                "(SELECT s.c_descendant FROM " + SUBTREE_IDS + " s)",
+                nodeId);
+        return deleted;
+    }
+
+    @Override
+    public List<Long> findDeepestDescendantIds(Long nodeId, int limit) {
+        return getCurrentSession()
+                .createQuery("SELECT c.c_descendant FROM TreeNodeClosure c " +
+                        "WHERE c.c_ancestor = ?1 AND c.c_depth > 0 ORDER BY c.c_depth DESC", Long.class)
+                .setParameter(1, nodeId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int deleteNodes(List<Long> nodeIds) {
+        ngramDao.removeNodes(nodeIds);
+        int deleted = getCurrentSession().createQuery("DELETE FROM TreeNode WHERE c_id IN (:ids)")
+                .setParameterList("ids", nodeIds)
+                .executeUpdate();
+        // 자손이 없으므로 노드가 자손인 쌍(자기 자신 포함)만 남아 있다
+        getCurrentSession().createQuery("DELETE FROM TreeNodeClosure WHERE c_descendant IN (:ids)")
+                .setParameterList("ids", nodeIds)
+                .executeUpdate();
+        return deleted;
+    }
+
+    @Override
+    public Long copySubtree(Long nodeId, Long newParentId, Integer levelDelta) {
+        // 복제본은 원본 ID를 음수로 c_left/c_right에 표시해 두고 이를 기준으로 새 ID를 찾는다. c_id는 시퀀스 생성기로 채워진다
+        bulkUpdate("INSERT INTO TreeNode (c_parentid, c_position, c_order, c_left, c_right, c_level, c_title, c_type, c_insdate) " +
+                "SELECT t.c_parentid, t.c_position, t.c_order, 0 - t.c_id, 0 - t.c_id, t.c_level + ?2, " +
+                "t.c_title, t.c_type, current_timestamp() " +
+                "FROM TreeNode t WHERE t.c_id IN (SELECT c.c_descendant FROM TreeNodeClosure c WHERE c.c_ancestor = ?1)",
+                nodeId, levelDelta);
+        
+        // 복제본의 c_parentid는 아직 원본 부모를 가리키므로 원본 부모의 복제본으로 바꾼다
+        nativeUpdate("UPDATE tree_node SET c_parentid = (SELECT m.c_id FROM " + COPIED_IDS + " m " +
+                "WHERE m.c_left = 0 - tree_node.c_parentid) WHERE c_left < 0 AND c_left <> ?1",
+                -nodeId);
+        bulkUpdate("UPDATE TreeNode SET c_parentid = ?2 WHERE c_left = ?1", -nodeId, newParentId);
+        
+        // 원본 하위 트리 안의 쌍을 복제본 사이에 그대로 옮기고, 새 부모의 조상들 x 복제본의 쌍을 추가
+        nativeUpdate("INSERT INTO tree_node_closure (c_ancestor, c_descendant, c_depth) " +
+                "SELECT a.c_id, d.c_id, c.c_depth FROM tree_node_closure c, tree_node a, tree_node d " +
+                "WHERE a.c_left = 0 - c.c_ancestor AND d.c_left = 0 - c.c_descendant AND a.c_left < 0 AND d.c_left < 0");
+        nativeUpdate("INSERT INTO tree_node_closure (c_ancestor, c_descendant, c_depth) " +
+                "SELECT a.c_ancestor, d.c_id, a.c_depth + c.c_depth + 1 " +
+                "FROM tree_node_closure a, tree_node_closure c, tree_node d " +
+                "WHERE a.c_descendant = ?2 AND c.c_ancestor = ?1 AND d.c_left = 0 - c.c_descendant AND d.c_left < 0",
+                nodeId, newParentId);
+        
+        ngramDao.indexRange(Long.MIN_VALUE, -1L);
+        Long newNodeId = getCurrentSession()
+                .createQuery("SELECT t.c_id FROM TreeNode t WHERE t.c_left = ?1", Long.class)
+                .setParameter(1, -nodeId)
+                .uniqueResult();
+        
+        // 클로저 테이블 방식의 노드는 경계값을 사용하지 않으므로 표시를 지운다
+        bulkUpdate("UPDATE TreeNode SET c_left = 0, c_right = 0 WHERE c_left < 0");
+        return newNodeId;
+    }
+
+    @Override
+    public int rebuildPaths(Long nodeId) {
+        Integer maxDepth = getCurrentSession()
+                .createQuery("SELECT max(c.c_depth) FROM TreeNodeClosure c WHERE c.c_ancestor = ?1", Integer.class)
+                .setParameter(1, nodeId)
+                .uniqueResult();
+        if (maxDepth == null) {
+            return 0;
+        }
+        
+        // 부모의 경로가 먼저 완성되도록 얕은 깊이부터 차례로 갱신. 부모 깊이의 경로는 MySQL 1093을 피하도록 파생 테이블로 읽는다
+        String sql = "UPDATE tree_node SET c_path = (" +
+                "SELECT CONCAT(p.c_path, tree_node.c_id, '/') FROM (" +
+                "SELECT DISTINCT n.c_id, n.c_path FROM tree_node n, tree_node_closure c " +
+                "WHERE c.c_descendant = n.c_id AND c.c_ancestor = ?1 AND c.c_depth = ?2 - 1) p " +
+                "WHERE p.c_id = tree_node.c_parentid) " +
+                "WHERE c_id IN (SELECT c_descendant FROM tree_node_closure WHERE c_ancestor = ?1 AND c_depth = ?2)";
+        // TreeNode 캐시는 하위 노드 항목만 잠그며, 잠금은 첫 UPDATE에서 한 번만 건다
+        List<Long> affected = findDescendantIds(nodeId);
+        int updated = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            updated += nativeUpdateLocking(TreeNode.class, affected, sql, nodeId, depth);
+            affected = Collections.emptyList();
+        }
+        return updated;
+    }
+
+    /**
+     * 자기 자신을 제외한 하위 노드 ID를 조회합니다. tree_node 변경 시 이 노드들의 캐시 항목만 잠그기 위해 사용합니다.
+     * @param nodeId 최상위 노드 ID
+     * @return 노드 ID 목록, 2차 캐시를 사용하지 않으면 빈 목록, 노드가 너무 많으면 null
+     */
+    private List<Long> findDescendantIds(Long nodeId) {
+        if (!isSecondLevelCacheEnabled()) {
+            return Collections.emptyList();
+        }
+        List<?> rows = getCurrentSession()
+                .createNativeQuery("SELECT c_descendant FROM tree_node_closure WHERE c_ancestor = ?1 AND c_depth > 0")
+                .setParameter(1, nodeId)
+                .setMaxResults(cacheLockLimit + 1)
+                .getResultList();
+        if (rows.size() > cacheLockLimit) {
+            return null;
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object id : rows) {
+            ids.add(((Number) id).longValue());
+        }
+        return ids;
+    }
+
+    @Override
+    public int shiftLevels(Long nodeId, Integer delta) {
+        return bulkUpdate("UPDATE TreeNode SET c_level = c_level + ?2 WHERE c_id IN " +
+                "(SELECT c.c_descendant FROM TreeNodeClosure c WHERE c.c_ancestor = ?1)",
+                nodeId, delta);
+    }
+
+    @Override
+    public boolean isDescendant(Long ancestorId, Long descendantId) {
+        Long count = getCurrentSession()
+                .createQuery("SELECT count(c) FROM TreeNodeClosure c " +
+                        "WHERE c.c_ancestor = ?1 AND c.c_descendant = ?2", Long.class)
+                .setParameter(1, ancestorId)
+                .setParameter(2, descendantId)
+                .uniqueResult();
+        return count != null && count > 0;
+    }
+
+    @Override
+    public void rebuild() {
+        bulkUpdate("DELETE FROM TreeNodeClosure");
+        nativeUpdate("INSERT INTO tree_node_closure (c_ancestor, c_descendant, c_depth) " +
+                "SELECT c_id, c_id, 0 FROM tree_node");
+        
+        // 깊이 depth인 쌍으로부터 깊이 depth + 1인 쌍을 만들어 더 이상 추가되지 않을 때까지 반복
+        int depth = 0;
+        int inserted;
+        do {
+            inserted = nativeUpdate("INSERT INTO tree_node_closure (c_ancestor, c_descendant, c_depth) " +
+                    "SELECT c.c_ancestor, n.c_id, c.c_depth + 1 " +
+                    "FROM tree_node_closure c, tree_node n " +
+                    "WHERE n.c_parentid = c.c_descendant AND c.c_depth = ?1",
+                    depth);
+            depth++;
+        } while (inserted > 0);
+    }
+}
@@ -2,12 +2,18 @@ package com.treecore.pro.dao;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Order;
 
 import com.treecore.pro.model.TreeNode;
+import com.treecore.pro.model.TreeNodeChildSummary;
 import com.treecore.pro.model.TreeNodeSearch;
+import com.treecore.pro.model.TreeNodeStats;
+import com.treecore.pro.model.TreeNodeSummary;
 
 /**
  * 트리 노드 DAO 인터페이스
@@ -20,6 +26,15 @@ public interface TreeNodeDao extends Serializable {
      */
     TreeNode getById(Long id);
 
+    /**
+     * 여러 ID의 노드를 한꺼번에 조회합니다.
+     * 영속성 컨텍스트에 있는 노드는 그대로 사용하고, 없는 노드만 현재 트리 테이블에서 IN 쿼리로 묶어 조회합니다.
+     * 2차 캐시는 트리 테이블을 구분하지 않으므로 사용하지 않습니다.
+     * @param ids 노드 ID 목록
+     * @return 요청 순서대로 조회된 노드 목록, 존재하지 않는 ID의 자리는 null
+     */
+    List<TreeNode> getByIds(List<Long> ids);
+
     /**
      * 조건에 맞는 단일 노드를 조회합니다.
      * @param predicates 조회 조건
@@ -73,14 +88,51 @@ public interface TreeNodeDao extends Serializable {
     List<TreeNode> findChildrenByParentId(Long parentId);
 
     /**
-     * 제목으로 노드를 검색합니다.
+     * 부모 ID로 자식 노드 요약 목록을 조회합니다.
+     * 엔티티 대신 필요한 컬럼만 생성자 프로젝션으로 읽어 영속성 컨텍스트를 거치지 않습니다.
+     * @param parentId 부모 노드 ID
+     * @return 자식 노드 요약 목록 (c_order 순)
+     */
+    List<TreeNodeSummary> findChildSummaries(Long parentId);
+
+    /**
+     * 여러 부모의 자식 노드 요약을 하위 노드 수와 함께 한 번의 쿼리로 조회합니다.
+     * countByBoundaries가 true이면 빈 공간 없는 번호 매김을 전제로 경계값에서 하위 노드 수를 계산하고,
+     * false이거나 클로저 테이블 방식이면 상관 서브쿼리로 실제 하위 노드 수를 셉니다.
+     * @param parentIds 부모 노드 ID 목록
+     * @param countByBoundaries 경계값으로 하위 노드 수를 계산할지 여부
+     * @return 자식 노드 요약 목록 (부모 ID, c_order 순)
+     */
+    List<TreeNodeChildSummary> findChildSummaries(List<Long> parentIds, boolean countByBoundaries);
+
+    /**
+     * 주어진 노드 중 자식이 하나 이상 있는 노드의 ID를 c_parentid로 조회합니다.
+     * 경계값이 없는 클로저 테이블 방식에서 자식 여부를 판단할 때 사용합니다.
+     * @param nodeIds 노드 ID 목록
+     * @return 자식이 있는 노드 ID 집합
+     */
+    Set<Long> findIdsWithChildren(List<Long> nodeIds);
+
+    /**
+     * 제목으로 노드를 검색합니다. 결과 수 제한이 없는 findNodesByTitle(title, 0)과 같습니다.
      * @param title 검색할 제목
      * @return 검색된 노드 목록
      */
     List<TreeNode> findNodesByTitle(String title);
 
     /**
-     * 범위 내의 노드를 조회합니다.
+     * 제목에 검색어가 포함된 노드를 관련도 순으로 최대 limit개 조회합니다.
+     * 제목 전체 일치, 앞부분 일치, 부분 일치 순이며 같은 순위에서는 짧은 제목이 먼저 옵니다.
+     * n-gram 색인을 사용하면 검색어의 모든 n-gram을 가진 노드만 후보로 읽습니다.
+     * 검색어의 %, _ 는 와일드카드가 아닌 문자로 취급합니다.
+     * @param title 검색어 (대소문자 구분 없음)
+     * @param limit 최대 결과 수, 0 이하이면 제한 없음
+     * @return 검색 결과 목록
+     */
+    List<TreeNode> findNodesByTitle(String title, int limit);
+
+    /**
+     * 범위 내의 노드를 c_left 순으로 조회합니다.
      * @param left 왼쪽 값
      * @param right 오른쪽 값
      * @return 범위 내의 노드 목록
@@ -89,18 +141,89 @@ public interface TreeNodeDao extends Serializable {
 
     /**
      * 노드의 모든 하위 노드를 조회합니다.
+     * materialized path를 사용하면 c_path 접두사 조회로 처리합니다.
      * @param node 기준 노드
      * @return 하위 노드 목록
      */
     List<TreeNode> findDescendants(TreeNode node);
 
+    /**
+     * 노드와 maxDepth 단계 아래까지의 하위 노드를 조회합니다.
+     * c_left/c_right 범위에 c_level 상한을 더해 (c_left, c_level) 인덱스 범위 안에서 걸러내며,
+     * 클로저 테이블 방식에서는 c_depth로 제한합니다.
+     * @param node 기준 노드
+     * @param maxDepth 기준 노드로부터의 최대 깊이 (1이면 직계 자식까지)
+     * @return 기준 노드를 포함한 하위 노드 목록 (c_left 순, 클로저 테이블 방식은 깊이, c_order 순)
+     */
+    List<TreeNode> findDescendants(TreeNode node, int maxDepth);
+
+    /**
+     * 노드와 모든 하위 노드의 요약 목록을 조회합니다.
+     * @param node 기준 노드
+     * @return 기준 노드를 포함한 하위 노드 요약 목록 (c_left 순, 클로저 테이블 방식은 깊이, c_order 순)
+     */
+    List<TreeNodeSummary> findDescendantSummaries(TreeNode node);
+
+    /**
+     * 트리 테이블의 모든 노드 요약을 부모 ID, 형제 순서(c_order, c_left) 순으로 조회합니다.
+     * 트리 스냅샷을 만들 때 사용합니다.
+     * @return 모든 노드 요약 목록
+     */
+    List<TreeNodeSummary> findAllSummaries();
+
+    /**
+     * 하위 트리의 노드 수, 최대 깊이, 리프 수, 타입별 노드 수를 집계 쿼리로 계산합니다.
+     * countByBoundaries가 true이면 빈 공간 없는 번호 매김을 전제로 c_right = c_left + 1인 노드를 리프로 보고,
+     * false이거나 클로저 테이블 방식이면 자식이 없는 노드를 리프로 셉니다.
+     * @param node 기준 노드
+     * @param countByBoundaries 경계값으로 리프 여부를 판단할지 여부
+     * @return 하위 트리 통계
+     */
+    TreeNodeStats findSubtreeStats(TreeNode node, boolean countByBoundaries);
+
+    /**
+     * 노드와 모든 하위 노드를 전진 전용 커서로 읽으며 한 건씩 consumer에 전달합니다.
+     * fetchSize 건마다 영속성 컨텍스트를 비우므로 하위 트리 크기와 관계없이 메모리 사용량이 일정합니다.
+     * @param node 기준 노드
+     * @param fetchSize 한 번에 가져올 행 수
+     * @param consumer 노드를 받을 콜백
+     * @return 전달한 노드 수
+     */
+    long scrollDescendants(TreeNode node, int fetchSize, Consumer<TreeNode> consumer);
+
     /**
      * 노드의 모든 상위 노드를 조회합니다.
+     * materialized path를 사용하면 c_path에 담긴 ID들로 기본키 조회를 합니다.
      * @param node 기준 노드
      * @return 상위 노드 목록
      */
     List<TreeNode> findAncestors(TreeNode node);
 
+    /**
+     * 여러 노드의 상위 노드 경로를 한 번의 쿼리로 조회합니다.
+     * findAncestors와 같이 루트부터 노드 자신까지를 포함합니다.
+     * @param nodeIds 기준 노드 ID 목록
+     * @return 노드 ID별 상위 노드 요약 목록 (루트부터 순서대로), 존재하지 않는 노드는 포함되지 않음
+     */
+    Map<Long, List<TreeNodeSummary>> findAncestorSummaries(List<Long> nodeIds);
+
+    /**
+     * c_path가 oldPrefix로 시작하는 노드들의 경로 앞부분을 newPrefix로 바꿉니다.
+     * @param oldPrefix 기존 경로 접두사
+     * @param newPrefix 새 경로 접두사
+     * @return 영향을 받은 레코드 수
+     */
+    int replacePathPrefix(String oldPrefix, String newPrefix);
+
+    /**
+     * (left, right) 범위 안쪽 노드들의 c_path를 레벨 순서대로 다시 계산합니다.
+     * 범위의 최상위 노드(left, right 자신)의 경로는 미리 올바르게 저장되어 있어야 합니다.
+     * @param left 최상위 노드의 left 값
+     * @param right 최상위 노드의 right 값
+     * @return 영향을 받은 레코드 수
+     */
+    int rebuildPaths(Long left, Long right);
+
     /**
      * 여러 노드를 일괄 저장합니다.
      * @param nodes 저장할 노드 목록
@@ -109,6 +232,7 @@ public interface TreeNodeDao extends Serializable {
 
     /**
      * HQL 쿼리를 실행하여 대량 업데이트를 수행합니다.
+     * 파라미터는 순서대로 ?1, ?2 ... 위치 파라미터에 바인딩됩니다.
      * @param queryString HQL 쿼리
      * @param values 쿼리 파라미터
      * @return 영향을 받은 레코드 수
@@ -116,7 +240,140 @@ public interface TreeNodeDao extends Serializable {
     int bulkUpdate(String queryString, Object... values);
 
     /**
-     * 검색 조건으로 트리 노드를 조회합니다.
+     * from 이상인 left/right 경계값을 delta 만큼 이동합니다.
+     * 양수이면 from 위치에 공간을 확보하고, 음수이면 빈 공간을 제거합니다.
+     * @param from 이동을 시작할 경계값
+     * @param delta 이동량
+     * @return 영향을 받은 레코드 수
+     */
+    int shiftBoundaries(Long from, Long delta);
+
+    /**
+     * 여러 위치에 한 번에 공간을 확보합니다. 각 경계값은 자신 이하인 모든 위치의 폭을 더한 만큼 이동합니다.
+     * 위치마다 shiftBoundaries를 따로 호출하는 것과 결과는 같지만 하나의 UPDATE로 실행됩니다.
+     * @param points 공간을 확보할 경계값 목록(오름차순)
+     * @param widths 각 위치에 확보할 폭
+     * @return 영향을 받은 레코드 수
+     */
+    int shiftBoundariesAt(List<Long> points, List<Long> widths);
+
+    /**
+     * [left, right] 하위 트리를 target 경계값 바로 앞으로 옮깁니다.
+     * 이전 위치와 새 위치 사이의 노드들만 하위 트리 폭만큼 당기거나 밀며, 그 밖의 행은 변경하지 않습니다.
+     * @param left 하위 트리의 left 값
+     * @param right 하위 트리의 right 값
+     * @param target 하위 트리가 놓일 위치 바로 뒤의 경계값
+     * @param levelDelta 하위 트리 노드들의 레벨 변화량
+     * @return 영향을 받은 레코드 수
+     */
+    int moveSubtree(Long left, Long right, Long target, Integer levelDelta);
+
+    /**
+     * [left, right] 하위 트리를 delta 만큼 평행 이동합니다. 목적지 구간이 비어 있을 때만 사용해야 합니다.
+     * @param left 하위 트리의 left 값
+     * @param right 하위 트리의 right 값
+     * @param delta 경계값 이동량
+     * @param levelDelta 하위 트리 노드들의 레벨 변화량
+     * @return 영향을 받은 레코드 수
+     */
+    int translateSubtree(Long left, Long right, Long delta, Integer levelDelta);
+
+    /**
+     * left 값으로 노드를 조회합니다.
+     * @param left 노드의 left 값
+     * @return 노드 엔티티
+     */
+    TreeNode findByLeft(Long left);
+
+    /**
+     * [left, right] 범위의 노드들을 한 번의 INSERT ... SELECT로 복제합니다.
+     * 복제된 노드들의 경계값은 offset 만큼, 레벨은 levelDelta 만큼 이동하며 c_parentid는 원본 값을 그대로 가집니다.
+     * @param left 원본 범위의 left 값
+     * @param right 원본 범위의 right 값
+     * @param offset 경계값 이동량
+     * @param levelDelta 레벨 변화량
+     * @return 복제된 레코드 수
+     */
+    int cloneRange(Long left, Long right, Long offset, Integer levelDelta);
+
+    /**
+     * 복제된 범위 (left, right) 안쪽 노드들의 c_parentid를 원본 부모에서 복제된 부모로 일괄 변경합니다.
+     * @param left 복제된 최상위 노드의 left 값
+     * @param right 복제된 최상위 노드의 right 값
+     * @param offset 복제 시 사용한 경계값 이동량
+     * @return 영향을 받은 레코드 수
+     */
+    int remapClonedParents(Long left, Long right, Long offset);
+
+    /**
+     * [left, right] 범위에 포함된 노드들을 한 번의 DELETE로 삭제합니다.
+     * @param left 왼쪽 값
+     * @param right 오른쪽 값
+     * @return 삭제된 레코드 수
+     */
+    int deleteRange(Long left, Long right);
+
+    /**
+     * (left, right) 범위 안쪽의 자손 중 c_left가 가장 큰 count 개를 고를 때 그 시작 위치를 조회합니다.
+     * [시작 위치, right - 1] 범위를 지우면 이 자손들만 지워지며, 각 노드는 자신의 자손과 함께 또는 그 뒤에 삭제됩니다.
+     * @param left 기준 노드의 left 값
+     * @param right 기준 노드의 right 값
+     * @param count 고를 자손 수
+     * @return count 번째로 큰 자손의 c_left, 자손이 count 개 이하이면 left + 1
+     */
+    Long findChunkStart(Long left, Long right, int count);
+
+    /**
+     * left가 from보다 작고 right가 [from, to] 범위에 있는 노드들의 right 값을 오름차순으로 조회합니다.
+     * [from, to] 범위의 노드를 지울 때 남는 조상들의 경계값으로, 지워진 구간을 나누는 위치가 됩니다.
+     * @param from 범위 시작 위치
+     * @param to 범위 끝 위치
+     * @return right 값 목록
+     */
+    List<Long> findEnclosingRights(Long from, Long to);
+
+    /**
+     * ID 목록에 해당하는 노드들을 한 번의 DELETE로 삭제합니다.
+     * @param ids 삭제할 노드 ID 목록
+     * @return 삭제된 레코드 수
+     */
+    int deleteByIds(List<Long> ids);
+
+    /**
+     * 부모 노드의 자식 목록(excludeId 제외)에서 index 위치에 놓일 정렬 키를 계산합니다.
+     * 앞뒤 형제 값의 중간값을 사용하며, 더 이상 중간값이 없을 때만 그 부모의 자식들 정렬 키를 한 번의 UPDATE로 다시 매깁니다.
+     * @param parentId 부모 노드 ID
+     * @param index 놓일 위치, 0부터 시작
+     * @param excludeId 제외할 노드 ID(이동 중인 노드), 없으면 null
+     * @return 정렬 키
+     */
+    Double allocateOrder(Long parentId, int index, Long excludeId);
+
+    /**
+     * 부모 노드의 자식들(excludeId 제외)을 정렬 키 순으로 나열했을 때 index 위치의 앞뒤 형제의 정렬 키를 조회합니다.
+     * 정렬 키는 c_order이며 값이 없는 형제는 c_left를 사용합니다. 최대 두 건만 읽습니다.
+     * @param parentId 부모 노드 ID
+     * @param index 삽입할 위치, 0부터 시작
+     * @param excludeId 제외할 노드 ID(이동 중인 노드), 없으면 null
+     * @return {앞 형제의 c_order, 뒤 형제의 c_order}, 형제가 없는 쪽은 null
+     */
+    Double[] findNeighbourOrders(Long parentId, int index, Long excludeId);
+
+    /**
+     * 부모 노드의 자식들(excludeId 제외)의 c_order 값을 현재 정렬 키 순서대로 1, 2, 3 ... 배의 간격으로 다시 매깁니다.
+     * c_order가 비어 있는 형제는 c_left를 정렬 키로 보고 함께 채웁니다.
+     * 두 형제 사이에 더 이상 중간값을 만들 수 없을 때만 실행합니다.
+     * @param parentId 부모 노드 ID
+     * @param excludeId 제외할 노드 ID(이동 중인 노드), 없으면 null
+     * @param step 형제 사이의 간격
+     * @return 영향을 받은 레코드 수
+     */
+    int rebalanceOrders(Long parentId, Long excludeId, Double step);
+
+    /**
+     * 검색 조건으로 트리 노드를 한 페이지 조회합니다.
+     * lastLeft/lastId가 지정되면 (c_left, c_id) 키셋으로, 아니면 pageIndex 기반 OFFSET으로 조회하며
+     * 조회 후 search의 hasNext가 채워집니다. pageUnit이 0 이하이면 전체를 조회합니다.
      * @param search 검색 조건
      * @return 트리 노드 목록
      */
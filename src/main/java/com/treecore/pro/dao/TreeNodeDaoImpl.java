@@ -1,19 +1,42 @@
 package com.treecore.pro.dao;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import javax.persistence.criteria.CompoundSelection;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Order;
 
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.query.Query;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import com.treecore.pro.config.TreeStorageEngineResolver;
 import com.treecore.pro.model.TreeNode;
+import com.treecore.pro.model.TreeNodeChildSummary;
 import com.treecore.pro.model.TreeNodeSearch;
+import com.treecore.pro.model.TreeNodeStats;
+import com.treecore.pro.model.TreeNodeSummary;
+import com.treecore.pro.util.NgramUtil;
+import com.treecore.pro.util.OrderKeyUtil;
 
 /**
  * 트리 노드 데이터 접근 구현체
@@ -23,6 +46,30 @@ public class TreeNodeDaoImpl extends AbstractHibernateDao<TreeNode, Long> implem
     
     private static final long serialVersionUID = 1L;
     
+    /** c_path(materialized path) 컬럼 사용 여부 */
+    @Value("${treecore.tree.materialized-path:false}")
+    private boolean materializedPath;
+    
+    /** 트리 테이블별 저장 방식 결정기 */
+    @Autowired
+    private TreeStorageEngineResolver storageEngineResolver;
+    
+    /** 제목 n-gram 색인, 저장/수정/삭제 시 함께 갱신 */
+    @Autowired
+    private TreeNodeNgramDao ngramDao;
+    
+    /** 자식/자손/조상 조회 결과 캐시 */
+    @Autowired
+    private TreeQueryCache queryCache;
+    
+    /** 경계값 이동 시 항목별로 캐시를 잠글 최대 노드 수, 넘으면 TreeNode 캐시 영역 전체를 비운다 */
+    @Value("${treecore.cache.lock-item-limit:1000}")
+    private int cacheLockLimit;
+    
+    /** 다중 ID 조회 시 IN 쿼리 하나에 담을 최대 ID 수 */
+    @Value("${treecore.multi-load.batch-size:500}")
+    private int multiLoadBatchSize;
+    
     @Autowired
     public TreeNodeDaoImpl(SessionFactory sessionFactory) {
         setSessionFactory(sessionFactory);
@@ -38,6 +85,17 @@ public class TreeNodeDaoImpl extends AbstractHibernateDao<TreeNode, Long> implem
         return super.getById(id);
     }
     
+    @Override
+    public List<TreeNode> getByIds(List<Long> ids) {
+        // 2차 캐시는 c_id만으로 구분되어 여러 트리 테이블이 공유하므로 읽지 않는다
+        return getCurrentSession().byMultipleIds(TreeNode.class)
+                .with(CacheMode.IGNORE)
+                .withBatchSize(multiLoadBatchSize)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(true)
+                .multiLoad(ids);
+    }
+    
     @Override
     public TreeNode getUnique(Predicate... predicates) {
         return super.getUnique(predicates);
@@ -63,15 +121,23 @@ public class TreeNodeDaoImpl extends AbstractHibernateDao<TreeNode, Long> implem
     @Override
     public void save(TreeNode node) {
         super.save(node);
+        ngramDao.indexNew(node.getC_id(), node.getC_title());
+        node.markTitleIndexed();
     }
     
     @Override
     public void update(TreeNode node) {
         super.update(node);
+        // 위치/경계값만 바뀌는 수정이 대부분이므로 제목이 바뀐 경우에만 색인을 갱신
+        if (node.titleChangedSinceIndexed()) {
+            ngramDao.index(node.getC_id(), node.getC_title());
+            node.markTitleIndexed();
+        }
     }
     
     @Override
     public void delete(TreeNode node) {
+        ngramDao.removeNodes(Collections.singletonList(node.getC_id()));
         super.delete(node);
     }
     
@@ -82,28 +148,115 @@ public class TreeNodeDaoImpl extends AbstractHibernateDao<TreeNode, Long> implem
     
     @Override
     public void deleteById(Long id) {
-        super.deleteById(id);
+        TreeNode node = getById(id);
+        if (node != null) {
+            // 색인 행을 함께 지우는 delete(TreeNode)를 거친다
+            delete(node);
+        }
     }
     
     @Override
     public List<TreeNode> findChildrenByParentId(Long parentId) {
+        return queryCache.get(TreeQueryCache.CHILDREN, parentId, () -> loadChildren(parentId));
+    }
+    
+    private List<TreeNode> loadChildren(Long parentId) {
         CriteriaBuilder builder = getCurrentSession().getCriteriaBuilder();
         CriteriaQuery<TreeNode> criteria = builder.createQuery(TreeNode.class);
         Root<TreeNode> root = criteria.from(TreeNode.class);
         criteria.where(builder.equal(root.get("c_parentid"), parentId));
-        criteria.orderBy(builder.asc(root.get("c_position")));
+        // (c_parentid, c_order) 인덱스 순서 그대로 읽는다
+        criteria.orderBy(builder.asc(root.get("c_order")), builder.asc(root.get("c_left")));
         return getCurrentSession().createQuery(criteria).getResultList();
     }
     
     @Override
-    public List<TreeNode> findNodesByTitle(String title) {
+    public List<TreeNodeSummary> findChildSummaries(Long parentId) {
         CriteriaBuilder builder = getCurrentSession().getCriteriaBuilder();
-        CriteriaQuery<TreeNode> criteria = builder.createQuery(TreeNode.class);
+        CriteriaQuery<TreeNodeSummary> criteria = builder.createQuery(TreeNodeSummary.class);
         Root<TreeNode> root = criteria.from(TreeNode.class);
-        criteria.where(builder.like(root.get("c_title"), "%" + title + "%"));
+        criteria.select(summaryOf(builder, root));
+        criteria.where(builder.equal(root.get("c_parentid"), parentId));
+        criteria.orderBy(builder.asc(root.get("c_order")), builder.asc(root.get("c_left")));
         return getCurrentSession().createQuery(criteria).getResultList();
     }
     
+    @Override
+    public List<TreeNodeChildSummary> findChildSummaries(List<Long> parentIds, boolean countByBoundaries) {
+        if (countByBoundaries && !storageEngineResolver.isClosureTable()) {
+            CriteriaBuilder builder = getCurrentSession().getCriteriaBuilder();
+            CriteriaQuery<TreeNodeSummary> criteria = builder.createQuery(TreeNodeSummary.class);
+            Root<TreeNode> root = criteria.from(TreeNode.class);
+            criteria.select(summaryOf(builder, root));
+            criteria.where(root.get("c_parentid").in(parentIds));
+            criteria.orderBy(builder.asc(root.get("c_parentid")), builder.asc(root.get("c_order")),
+                    builder.asc(root.get("c_left")));
+            List<TreeNodeChildSummary> children = new ArrayList<>();
+            for (TreeNodeSummary summary : getCurrentSession().createQuery(criteria).getResultList()) {
+                children.add(TreeNodeChildSummary.ofDenseBoundaries(summary));
+            }
+            return children;
+        }
+        String descendantCount = storageEngineResolver.isClosureTable()
+                ? "(SELECT COUNT(c) FROM TreeNodeClosure c WHERE c.c_ancestor = t.c_id AND c.c_depth > 0)"
+                : "(SELECT COUNT(d) FROM TreeNode d WHERE d.c_left > t.c_left AND d.c_left < t.c_right)";
+        return getCurrentSession()
+                .createQuery("SELECT new com.treecore.pro.model.TreeNodeChildSummary(" +
+                        "t.c_id, t.c_parentid, t.c_left, t.c_right, t.c_level, t.c_title, t.c_type, " +
+                        descendantCount + ") FROM TreeNode t WHERE t.c_parentid IN (:parentIds) " +
+                        "ORDER BY t.c_parentid, t.c_order, t.c_left", TreeNodeChildSummary.class)
+                .setParameterList("parentIds", parentIds)
+                .getResultList();
+    }
+    
+    @Override
+    public Set<Long> findIdsWithChildren(List<Long> nodeIds) {
+        Set<Long> parentIds = new HashSet<>();
+        for (int from = 0; from < nodeIds.size(); from += multiLoadBatchSize) {
+            List<Long> chunk = nodeIds.subList(from, Math.min(from + multiLoadBatchSize, nodeIds.size()));
+            parentIds.addAll(getCurrentSession()
+                    .createQuery("SELECT DISTINCT t.c_parentid FROM TreeNode t WHERE t.c_parentid IN (:ids)", Long.class)
+                    .setParameterList("ids", chunk)
+                    .getResultList());
+        }
+        return parentIds;
+    }
+    
+    @Override
+    public List<TreeNode> findNodesByTitle(String title) {
+        return findNodesByTitle(title, 0);
+    }
+    
+    @Override
+    public List<TreeNode> findNodesByTitle(String title, int limit) {
+        String escape = " ESCAPE '" + NgramUtil.LIKE_ESCAPE + "'";
+        Set<String> grams = NgramUtil.gramsOf(title);
+        boolean useIndex = ngramDao.isEnabled() && !grams.isEmpty();
+        
+        StringBuilder hql = new StringBuilder("FROM TreeNode t WHERE lower(t.c_title) LIKE :pattern").append(escape);
+        if (useIndex) {
+            // 모든 n-gram을 가진 노드만 후보로 남기고 LIKE로 실제 포함 여부를 확인한다
+            hql.append(" AND t.c_id IN (SELECT g.c_node_id FROM TreeNodeNgram g WHERE g.c_gram IN (:grams) ")
+                    .append("GROUP BY g.c_node_id HAVING count(g.c_gram) = :gramCount)");
+        }
+        // 제목 전체 일치, 앞부분 일치, 부분 일치 순으로 짧은 제목을 먼저
+        hql.append(" ORDER BY CASE WHEN lower(t.c_title) = :term THEN 0 WHEN lower(t.c_title) LIKE :prefix")
+                .append(escape).append(" THEN 1 ELSE 2 END, length(t.c_title), t.c_id");
+        
+        String term = title.toLowerCase(Locale.ROOT);
+        Query<TreeNode> query = getCurrentSession().createQuery(hql.toString(), TreeNode.class)
+                .setParameter("pattern", NgramUtil.containsPattern(term))
+                .setParameter("term", term)
+                .setParameter("prefix", NgramUtil.escapeLike(term) + "%");
+        if (useIndex) {
+            query.setParameterList("grams", grams).setParameter("gramCount", (long) grams.size());
+        }
+        if (limit > 0) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+    
     @Override
     public List<TreeNode> findNodesInRange(Long left, Long right) {
         CriteriaBuilder builder = getCurrentSession().getCriteriaBuilder();
@@ -115,17 +268,198 @@ public class TreeNodeDaoImpl extends AbstractHibernateDao<TreeNode, Long> implem
                 builder.lessThanOrEqualTo(root.get("c_right"), right)
             )
         );
+        criteria.orderBy(builder.asc(root.get("c_left")));
         return getCurrentSession().createQuery(criteria).getResultList();
     }
     
     @Override
     public List<TreeNode> findDescendants(TreeNode node) {
+        return queryCache.get(TreeQueryCache.DESCENDANTS, node.getC_id(), () -> loadDescendants(node));
+    }
+    
+    private List<TreeNode> loadDescendants(TreeNode node) {
+        if (storageEngineResolver.isClosureTable()) {
+            return getCurrentSession()
+                    .createQuery("SELECT t FROM TreeNode t, TreeNodeClosure c " +
+                            "WHERE c.c_descendant = t.c_id AND c.c_ancestor = ?1 ORDER BY c.c_depth, t.c_order", TreeNode.class)
+                    .setParameter(1, node.getC_id())
+                    .getResultList();
+        }
+        if (usePath(node)) {
+            // 접두사 LIKE는 c_path 인덱스 범위 스캔으로 처리된다
+            CriteriaBuilder builder = getCurrentSession().getCriteriaBuilder();
+            CriteriaQuery<TreeNode> criteria = builder.createQuery(TreeNode.class);
+            Root<TreeNode> root = criteria.from(TreeNode.class);
+            criteria.where(builder.like(root.get("c_path"), node.getC_path() + "%"));
+            criteria.orderBy(builder.asc(root.get("c_left")));
+            return getCurrentSession().createQuery(criteria).getResultList();
+        }
         return findNodesInRange(node.getC_left(), node.getC_right());
     }
     
+    @Override
+    public List<TreeNode> findDescendants(TreeNode node, int maxDepth) {
+        return queryCache.get(TreeQueryCache.DESCENDANTS, node.getC_id() + ":" + maxDepth,
+                () -> loadDescendants(node, maxDepth));
+    }
+    
+    private List<TreeNode> loadDescendants(TreeNode node, int maxDepth) {
+        if (storageEngineResolver.isClosureTable()) {
+            return getCurrentSession()
+                    .createQuery("SELECT t FROM TreeNode t, TreeNodeClosure c " +
+                            "WHERE c.c_descendant = t.c_id AND c.c_ancestor = ?1 AND c.c_depth <= ?2 " +
+                            "ORDER BY c.c_depth, t.c_order", TreeNode.class)
+                    .setParameter(1, node.getC_id())
+                    .setParameter(2, maxDepth)
+                    .getResultList();
+        }
+        // 하위 노드의 c_left는 모두 (left, right) 안에 있으므로 c_left 범위와 c_level 상한만으로 충분하다
+        CriteriaBuilder builder = getCurrentSession().getCriteriaBuilder();
+        CriteriaQuery<TreeNode> criteria = builder.createQuery(TreeNode.class);
+        Root<TreeNode> root = criteria.from(TreeNode.class);
+        criteria.where(
+            builder.between(root.get("c_left"), node.getC_left(), node.getC_right()),
+            builder.lessThanOrEqualTo(root.get("c_level"), node.getC_level() + maxDepth)
+        );
+        criteria.orderBy(builder.asc(root.get("c_left")));
+        return getCurrentSession().createQuery(criteria).getResultList();
+    }
+    
+    @Override
+    public List<TreeNodeSummary> findDescendantSummaries(TreeNode node) {
+        if (storageEngineResolver.isClosureTable()) {
+            return getCurrentSession()
+                    .createQuery("SELECT new com.treecore.pro.model.TreeNodeSummary(" +
+                            "t.c_id, t.c_parentid, t.c_left, t.c_right, t.c_level, t.c_title, t.c_type) " +
+                            "FROM TreeNode t, TreeNodeClosure c " +
+                            "WHERE c.c_descendant = t.c_id AND c.c_ancestor = ?1 ORDER BY c.c_depth, t.c_order",
+                            TreeNodeSummary.class)
+                    .setParameter(1, node.getC_id())
+                    .getResultList();
+        }
+        CriteriaBuilder builder = getCurrentSession().getCriteriaBuilder();
+        CriteriaQuery<TreeNodeSummary> criteria = builder.createQuery(TreeNodeSummary.class);
+        Root<TreeNode> root = criteria.from(TreeNode.class);
+        criteria.select(summaryOf(builder, root));
+        criteria.where(
+            builder.greaterThanOrEqualTo(root.get("c_left"), node.getC_left()),
+            builder.lessThanOrEqualTo(root.get("c_right"), node.getC_right())
+        );
+        criteria.orderBy(builder.asc(root.get("c_left")));
+        return getCurrentSession().createQuery(criteria).getResultList();
+    }
+    
+    @Override
+    public List<TreeNodeSummary> findAllSummaries() {
+        CriteriaBuilder builder = getCurrentSession().getCriteriaBuilder();
+        CriteriaQuery<TreeNodeSummary> criteria = builder.createQuery(TreeNodeSummary.class);
+        Root<TreeNode> root = criteria.from(TreeNode.class);
+        criteria.select(summaryOf(builder, root));
+        criteria.orderBy(builder.asc(root.get("c_parentid")), builder.asc(root.get("c_order")),
+                builder.asc(root.get("c_left")));
+        return getCurrentSession().createQuery(criteria).getResultList();
+    }
+    
+    @Override
+    public TreeNodeStats findSubtreeStats(TreeNode node, boolean countByBoundaries) {
+        boolean closure = storageEngineResolver.isClosureTable();
+        // 하위 노드(자신 제외)
+        String subtree = closure
+                ? "FROM TreeNode t, TreeNodeClosure c WHERE c.c_ancestor = ?1 AND c.c_depth > 0 AND t.c_id = c.c_descendant"
+                : "FROM TreeNode t WHERE t.c_left > ?1 AND t.c_left < ?2";
+        String depth = closure ? "c.c_depth" : "t.c_level";
+        
+        Query<Object[]> grouped = getCurrentSession()
+                .createQuery("SELECT t.c_type, count(t), max(" + depth + ") " + subtree + " GROUP BY t.c_type", Object[].class);
+        String leaf = countByBoundaries && !closure
+                ? " AND t.c_right = t.c_left + 1"
+                : " AND NOT EXISTS (SELECT k.c_id FROM TreeNode k WHERE k.c_parentid = t.c_id)";
+        Query<Long> leaves = getCurrentSession().createQuery("SELECT count(t) " + subtree + leaf, Long.class);
+        if (closure) {
+            grouped.setParameter(1, node.getC_id());
+            leaves.setParameter(1, node.getC_id());
+        } else {
+            grouped.setParameter(1, node.getC_left()).setParameter(2, node.getC_right());
+            leaves.setParameter(1, node.getC_left()).setParameter(2, node.getC_right());
+        }
+        
+        Map<String, Long> countByType = new LinkedHashMap<>();
+        long descendantCount = 0;
+        int maxDepth = 0;
+        for (Object[] row : grouped.getResultList()) {
+            long count = ((Number) row[1]).longValue();
+            countByType.merge(row[0] == null ? "" : (String) row[0], count, Long::sum);
+            descendantCount += count;
+            int rowDepth = ((Number) row[2]).intValue() - (closure ? 0 : node.getC_level());
+            maxDepth = Math.max(maxDepth, rowDepth);
+        }
+        return new TreeNodeStats(node.getC_id(), descendantCount, maxDepth, leaves.getSingleResult(), countByType);
+    }
+    
+    @Override
+    public long scrollDescendants(TreeNode node, int fetchSize, Consumer<TreeNode> consumer) {
+        Session session = getCurrentSession();
+        Query<TreeNode> query;
+        if (storageEngineResolver.isClosureTable()) {
+            query = session.createQuery("SELECT t FROM TreeNode t, TreeNodeClosure c " +
+                    "WHERE c.c_descendant = t.c_id AND c.c_ancestor = ?1 ORDER BY c.c_depth, t.c_order", TreeNode.class)
+                    .setParameter(1, node.getC_id());
+        } else {
+            query = session.createQuery("FROM TreeNode WHERE c_left >= ?1 AND c_right <= ?2 ORDER BY c_left", TreeNode.class)
+                    .setParameter(1, node.getC_left())
+                    .setParameter(2, node.getC_right());
+        }
+        
+        // 읽기 전용, 2차 캐시 미사용으로 스냅샷과 캐시 적재 비용을 없앤다
+        query.setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE);
+        
+        long count = 0;
+        ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            while (results.next()) {
+                consumer.accept((TreeNode) results.get(0));
+                if (++count % fetchSize == 0) {
+                    session.clear();
+                }
+            }
+        } finally {
+            results.close();
+        }
+        return count;
+    }
+    
     @Override
     public List<TreeNode> findAncestors(TreeNode node) {
+        return queryCache.get(TreeQueryCache.ANCESTORS, node.getC_id(), () -> loadAncestors(node));
+    }
+    
+    private List<TreeNode> loadAncestors(TreeNode node) {
+        if (storageEngineResolver.isClosureTable()) {
+            // 클로저 행의 깊이가 클수록 루트에 가깝다
+            return getCurrentSession()
+                    .createQuery("SELECT t FROM TreeNode t, TreeNodeClosure c " +
+                            "WHERE c.c_ancestor = t.c_id AND c.c_descendant = ?1 ORDER BY c.c_depth DESC", TreeNode.class)
+                    .setParameter(1, node.getC_id())
+                    .getResultList();
+        }
         CriteriaBuilder builder = getCurrentSession().getCriteriaBuilder();
+        if (usePath(node)) {
+            // 경로에 담긴 ID들을 기본키로 조회
+            List<Long> ids = new ArrayList<>();
+            for (String id : node.getC_path().split("/")) {
+                if (!id.isEmpty()) {
+                    ids.add(Long.valueOf(id));
+                }
+            }
+            CriteriaQuery<TreeNode> criteria = builder.createQuery(TreeNode.class);
+            Root<TreeNode> root = criteria.from(TreeNode.class);
+            criteria.where(root.get("c_id").in(ids));
+            criteria.orderBy(builder.asc(root.get("c_level")));
+            return getCurrentSession().createQuery(criteria).getResultList();
+        }
+        
         CriteriaQuery<TreeNode> criteria = builder.createQuery(TreeNode.class);
         Root<TreeNode> root = criteria.from(TreeNode.class);
         criteria.where(
@@ -138,22 +472,340 @@ public class TreeNodeDaoImpl extends AbstractHibernateDao<TreeNode, Long> implem
         return getCurrentSession().createQuery(criteria).getResultList();
     }
     
+    @Override
+    public Map<Long, List<TreeNodeSummary>> findAncestorSummaries(List<Long> nodeIds) {
+        String hql = storageEngineResolver.isClosureTable()
+                ? "SELECT c.c_descendant, a.c_id, a.c_parentid, a.c_left, a.c_right, a.c_level, a.c_title, a.c_type " +
+                  "FROM TreeNodeClosure c, TreeNode a " +
+                  "WHERE c.c_descendant IN (:ids) AND a.c_id = c.c_ancestor " +
+                  "ORDER BY c.c_descendant, c.c_depth DESC"
+                : "SELECT t.c_id, a.c_id, a.c_parentid, a.c_left, a.c_right, a.c_level, a.c_title, a.c_type " +
+                  "FROM TreeNode t, TreeNode a " +
+                  "WHERE t.c_id IN (:ids) AND a.c_left <= t.c_left AND a.c_right >= t.c_right " +
+                  "ORDER BY t.c_id, a.c_left";
+        List<Object[]> rows = getCurrentSession().createQuery(hql, Object[].class)
+                .setParameterList("ids", nodeIds)
+                .getResultList();
+        
+        Map<Long, List<TreeNodeSummary>> ancestors = new HashMap<>();
+        for (Object[] row : rows) {
+            ancestors.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(new TreeNodeSummary((Long) row[1], (Long) row[2], (Long) row[3], (Long) row[4],
+                            (Integer) row[5], (String) row[6], (String) row[7]));
+        }
+        return ancestors;
+    }
+    
+    @Override
+    public int replacePathPrefix(String oldPrefix, String newPrefix) {
+        String sql = "UPDATE tree_node SET c_path = CONCAT(?2, SUBSTRING(c_path, ?3)) " +
+                "WHERE c_path LIKE ?1";
+        return nativeUpdateLocking(findIdsWhere("c_path LIKE ?1", oldPrefix + "%"),
+                sql, oldPrefix + "%", newPrefix, oldPrefix.length() + 1);
+    }
+    
+    @Override
+    public int rebuildPaths(Long left, Long right) {
+        Object[] levels = (Object[]) getCurrentSession()
+                .createQuery("SELECT min(c_level), max(c_level) FROM TreeNode WHERE c_left > ?1 AND c_right < ?2")
+                .setParameter(1, left)
+                .setParameter(2, right)
+                .uniqueResult();
+        if (levels == null || levels[0] == null) {
+            return 0;
+        }
+        
+        // 부모의 경로가 먼저 완성되도록 얕은 레벨부터 차례로 갱신.
+        // MySQL은 갱신 대상 테이블을 서브쿼리에서 직접 읽지 못하므로(1093) 부모 레벨을 파생 테이블로 먼저 구체화한다
+        String sql = "UPDATE tree_node SET c_path = (" +
+                "SELECT CONCAT(p.c_path, tree_node.c_id, '/') FROM (" +
+                "SELECT DISTINCT c_id, c_path FROM tree_node WHERE c_left >= ?1 AND c_right <= ?2 AND c_level = ?3 - 1) p " +
+                "WHERE p.c_id = tree_node.c_parentid) " +
+                "WHERE c_left > ?1 AND c_right < ?2 AND c_level = ?3";
+        // 잠금은 첫 UPDATE에서 구간 전체에 한 번만 건다
+        List<Long> affected = findIdsWhere("c_left > ?1 AND c_right < ?2", left, right);
+        int updated = 0;
+        for (int level = (Integer) levels[0]; level <= (Integer) levels[1]; level++) {
+            updated += nativeUpdateLocking(affected, sql, left, right, level);
+            affected = Collections.emptyList();
+        }
+        return updated;
+    }
+    
+    /**
+     * 노드 조회에 c_path를 사용할 수 있는지 확인합니다.
+     */
+    private boolean usePath(TreeNode node) {
+        return materializedPath && node.getC_path() != null;
+    }
+    
     @Override
     public void bulkInsert(List<TreeNode> nodes) {
         for (TreeNode node : nodes) {
             getCurrentSession().persist(node);
+            ngramDao.indexNew(node.getC_id(), node.getC_title());
+            node.markTitleIndexed();
         }
     }
     
     @Override
     public int bulkUpdate(String queryString, Object... values) {
-        org.hibernate.query.Query query = getCurrentSession().createQuery(queryString);
-        if (values != null) {
-            for (int i = 0; i < values.length; i++) {
-                query.setParameter(i, values[i]);
-            }
+        return super.bulkUpdate(queryString, values);
+    }
+    
+    @Override
+    public int shiftBoundaries(Long from, Long delta) {
+        // c_left >= from 인 노드는 항상 c_right >= from 이므로 한 번의 UPDATE로 양쪽 경계를 이동
+        String sql = "UPDATE tree_node SET " +
+                "c_left = CASE WHEN c_left >= ?1 THEN c_left + ?2 ELSE c_left END, " +
+                "c_right = c_right + ?2 " +
+                "WHERE c_right >= ?1";
+        return nativeUpdateLocking(findIdsWhere("c_right >= ?1", from), sql, from, delta);
+    }
+    
+    @Override
+    public int shiftBoundariesAt(List<Long> points, List<Long> widths) {
+        // 큰 위치부터 비교하여 처음 만족하는 위치까지의 누적 폭을 더한다
+        long[] cumulative = new long[points.size()];
+        long total = 0;
+        for (int i = 0; i < points.size(); i++) {
+            total += widths.get(i);
+            cumulative[i] = total;
+        }
+        
+        StringBuilder left = new StringBuilder("c_left = CASE");
+        StringBuilder right = new StringBuilder("c_right = CASE");
+        Object[] values = new Object[points.size() * 2];
+        for (int i = points.size() - 1; i >= 0; i--) {
+            int point = 2 * i + 1;
+            int delta = 2 * i + 2;
+            left.append(" WHEN c_left >= ?").append(point).append(" THEN c_left + ?").append(delta);
+            right.append(" WHEN c_right >= ?").append(point).append(" THEN c_right + ?").append(delta);
+            values[2 * i] = points.get(i);
+            values[2 * i + 1] = cumulative[i];
+        }
+        left.append(" ELSE c_left END");
+        right.append(" ELSE c_right END");
+        
+        String sql = "UPDATE tree_node SET " + left + ", " + right + " WHERE c_right >= ?1";
+        return nativeUpdateLocking(findIdsWhere("c_right >= ?1", points.get(0)), sql, values);
+    }
+    
+    @Override
+    public int moveSubtree(Long left, Long right, Long target, Integer levelDelta) {
+        long width = right - left + 1;
+        long windowLow;
+        long windowHigh;
+        long subtreeDelta;
+        long betweenDelta;
+        if (target > right) {
+            // 오른쪽으로 이동: (right, target) 구간의 노드들을 왼쪽으로 당긴다
+            windowLow = left;
+            windowHigh = target - 1;
+            subtreeDelta = target - 1 - right;
+            betweenDelta = -width;
+        } else {
+            // 왼쪽으로 이동: [target, left) 구간의 노드들을 오른쪽으로 민다
+            windowLow = target;
+            windowHigh = right;
+            subtreeDelta = target - left;
+            betweenDelta = width;
+        }
+        
+        // c_level은 이동 전 c_left 값으로 판단해야 하므로 가장 먼저 갱신한다
+        String sql = "UPDATE tree_node SET " +
+                "c_level = CASE WHEN c_left BETWEEN ?1 AND ?2 THEN c_level + ?7 ELSE c_level END, " +
+                "c_left = CASE WHEN c_left BETWEEN ?1 AND ?2 THEN c_left + ?3 " +
+                "WHEN c_left BETWEEN ?4 AND ?5 THEN c_left + ?6 ELSE c_left END, " +
+                "c_right = CASE WHEN c_right BETWEEN ?1 AND ?2 THEN c_right + ?3 " +
+                "WHEN c_right BETWEEN ?4 AND ?5 THEN c_right + ?6 ELSE c_right END " +
+                "WHERE c_left BETWEEN ?4 AND ?5 OR c_right BETWEEN ?4 AND ?5";
+        List<Long> affected = findIdsWhere("c_left BETWEEN ?1 AND ?2 OR c_right BETWEEN ?1 AND ?2", windowLow, windowHigh);
+        return nativeUpdateLocking(affected, sql,
+                left, right, subtreeDelta, windowLow, windowHigh, betweenDelta, levelDelta);
+    }
+    
+    @Override
+    public int translateSubtree(Long left, Long right, Long delta, Integer levelDelta) {
+        String sql = "UPDATE tree_node SET " +
+                "c_left = c_left + ?3, " +
+                "c_right = c_right + ?3, " +
+                "c_level = c_level + ?4 " +
+                "WHERE c_left >= ?1 AND c_right <= ?2";
+        return nativeUpdateLocking(findIdsWhere("c_left >= ?1 AND c_right <= ?2", left, right),
+                sql, left, right, delta, levelDelta);
+    }
+    
+    /**
+     * 대량 변경으로 값이 바뀌는 노드의 ID를 조회합니다. 이 노드들의 캐시 항목만 잠그기 위해 사용합니다.
+     * 변경마다 인덱스를 타는 SELECT가 한 번 더 실행되지만, 다른 트리와 나머지 노드의 캐시 항목을 살리는 대가로 감수합니다.
+     * 이번 트랜잭션에서 삽입한 행처럼 캐시에 있을 수 없는 행만 바뀌면 조회하지 않고 빈 목록을 넘깁니다.
+     * 바뀌는 노드가 많으면 ID를 모으고 항목마다 잠그는 비용이 영역 전체를 비우는 비용보다 크므로 null을 반환합니다.
+     * @param condition tree_node 컬럼에 대한 SQL 조건, 파라미터는 ?1부터 사용
+     * @param values 조건 파라미터
+     * @return 노드 ID 목록, 2차 캐시를 사용하지 않으면 빈 목록, 노드가 너무 많으면 null
+     */
+    private List<Long> findIdsWhere(String condition, Object... values) {
+        if (!isSecondLevelCacheEnabled()) {
+            return Collections.emptyList();
+        }
+        NativeQuery<?> query = getCurrentSession().createNativeQuery("SELECT c_id FROM tree_node WHERE " + condition);
+        for (int i = 0; i < values.length; i++) {
+            query.setParameter(i + 1, values[i]);
+        }
+        List<?> rows = query.setMaxResults(cacheLockLimit + 1).getResultList();
+        if (rows.size() > cacheLockLimit) {
+            return null;
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object id : rows) {
+            ids.add(((Number) id).longValue());
+        }
+        return ids;
+    }
+    
+    @Override
+    public TreeNode findByLeft(Long left) {
+        CriteriaBuilder builder = getCurrentSession().getCriteriaBuilder();
+        CriteriaQuery<TreeNode> criteria = builder.createQuery(TreeNode.class);
+        Root<TreeNode> root = criteria.from(TreeNode.class);
+        criteria.where(builder.equal(root.get("c_left"), left));
+        return getCurrentSession().createQuery(criteria).uniqueResult();
+    }
+    
+    @Override
+    public int cloneRange(Long left, Long right, Long offset, Integer levelDelta) {
+        // c_id는 시퀀스로 채운다. 새 행은 캐시에 있을 수 없으므로 잠글 항목이 없다
+        String sql = "INSERT INTO tree_node (c_id, c_parentid, c_position, c_order, c_left, c_right, c_level, c_title, c_type, c_insdate) " +
+                "SELECT " + nextIdExpression() + ", c_parentid, c_position, c_order, c_left + ?3, c_right + ?3, c_level + ?4, " +
+                "c_title, c_type, CURRENT_TIMESTAMP " +
+                "FROM tree_node WHERE c_left >= ?1 AND c_right <= ?2";
+        int cloned = nativeUpdateLocking(Collections.emptyList(), sql, left, right, offset, levelDelta);
+        ngramDao.indexRange(left + offset, right + offset);
+        return cloned;
+    }
+    
+    @Override
+    public int remapClonedParents(Long left, Long right, Long offset) {
+        // 복제본의 c_parentid는 아직 원본 부모를 가리키므로, 원본 부모의 left + offset 위치에 있는 복제본으로 바꾼다.
+        // 원본 ID -> 복제본 ID 대응은 MySQL 1093을 피하도록 DISTINCT 파생 테이블로 먼저 구체화한다.
+        // 바뀌는 행은 cloneRange가 이번 트랜잭션에서 삽입한 복제본뿐이므로 잠글 캐시 항목이 없다
+        String sql = "UPDATE tree_node SET c_parentid = (" +
+                "SELECT m.new_id FROM (" +
+                "SELECT DISTINCT n.c_id AS new_id, o.c_id AS old_id FROM tree_node n, tree_node o " +
+                "WHERE n.c_left >= ?1 AND n.c_right <= ?2 AND o.c_left = n.c_left - ?3) m " +
+                "WHERE m.old_id = tree_node.c_parentid) " +
+                "WHERE c_left > ?1 AND c_right < ?2";
+        return nativeUpdateLocking(Collections.emptyList(), sql, left, right, offset);
+    }
+    
+    @Override
+    public int deleteRange(Long left, Long right) {
+        ngramDao.removeRange(left, right);
+        String condition = "c_left >= ?1 AND c_right <= ?2";
+        return nativeUpdateLocking(findIdsWhere(condition, left, right), "DELETE FROM tree_node WHERE " + condition, left, right);
+    }
+    
+    @Override
+    public Long findChunkStart(Long left, Long right, int count) {
+        CriteriaBuilder builder = getCurrentSession().getCriteriaBuilder();
+        CriteriaQuery<Long> criteria = builder.createQuery(Long.class);
+        Root<TreeNode> root = criteria.from(TreeNode.class);
+        criteria.select(root.get("c_left"));
+        criteria.where(
+            builder.and(
+                builder.greaterThan(root.get("c_left"), left),
+                builder.lessThan(root.get("c_right"), right)
+            )
+        );
+        criteria.orderBy(builder.desc(root.get("c_left")));
+        List<Long> lefts = getCurrentSession().createQuery(criteria)
+                .setFirstResult(count - 1)
+                .setMaxResults(1)
+                .getResultList();
+        return lefts.isEmpty() ? left + 1 : lefts.get(0);
+    }
+    
+    @Override
+    public List<Long> findEnclosingRights(Long from, Long to) {
+        CriteriaBuilder builder = getCurrentSession().getCriteriaBuilder();
+        CriteriaQuery<Long> criteria = builder.createQuery(Long.class);
+        Root<TreeNode> root = criteria.from(TreeNode.class);
+        criteria.select(root.get("c_right"));
+        criteria.where(
+            builder.and(
+                builder.lessThan(root.get("c_left"), from),
+                builder.between(root.get("c_right"), from, to)
+            )
+        );
+        criteria.orderBy(builder.asc(root.get("c_right")));
+        return getCurrentSession().createQuery(criteria).getResultList();
+    }
+    
+    @Override
+    public int deleteByIds(List<Long> ids) {
+        ngramDao.removeNodes(ids);
+        return getCurrentSession().createQuery("DELETE FROM TreeNode WHERE c_id IN (:ids)")
+                .setParameterList("ids", ids)
+                .executeUpdate();
+    }
+    
+    @Override
+    public Double allocateOrder(Long parentId, int index, Long excludeId) {
+        Double[] neighbours = findNeighbourOrders(parentId, index, excludeId);
+        Double order = OrderKeyUtil.between(neighbours[0], neighbours[1]);
+        if (order == null) {
+            // 중간값이 남아 있지 않을 때만 형제들의 정렬 키를 다시 매긴다
+            rebalanceOrders(parentId, excludeId, OrderKeyUtil.STEP);
+            neighbours = findNeighbourOrders(parentId, index, excludeId);
+            order = OrderKeyUtil.between(neighbours[0], neighbours[1]);
+        }
+        return order;
+    }
+    
+    @Override
+    public Double[] findNeighbourOrders(Long parentId, int index, Long excludeId) {
+        // c_order가 채워지지 않은 형제는 Nested Set 순서(c_left)를 정렬 키로 본다.
+        // 엔티티가 아닌 값만 조회하므로 벌크 업데이트 직후에도 DB의 최신 값을 읽는다
+        int first = Math.max(index - 1, 0);
+        List<Double> orders = getCurrentSession()
+                .createQuery("SELECT coalesce(t.c_order, t.c_left) FROM TreeNode t " +
+                        "WHERE t.c_parentid = ?1 AND t.c_id <> ?2 " +
+                        "ORDER BY coalesce(t.c_order, t.c_left), t.c_left, t.c_id", Double.class)
+                .setParameter(1, parentId)
+                .setParameter(2, excludeId != null ? excludeId : 0L)
+                .setFirstResult(first)
+                .setMaxResults(index == 0 ? 1 : 2)
+                .getResultList();
+        
+        Double[] neighbours = new Double[2];
+        int next = 0;
+        if (index > 0 && !orders.isEmpty()) {
+            neighbours[0] = orders.get(0);
+            next = 1;
+        }
+        if (orders.size() > next) {
+            neighbours[1] = orders.get(next);
         }
-        return query.executeUpdate();
+        return neighbours;
+    }
+    
+    @Override
+    public int rebalanceOrders(Long parentId, Long excludeId, Double step) {
+        // 자신보다 앞선 형제 수(순위)로 새 값을 계산한다. 같은 정렬 키를 가진 형제는 c_left, c_id 순으로 구분하며,
+        // c_order가 채워지지 않은 형제는 findNeighbourOrders와 같이 c_left를 정렬 키로 본다.
+        // 형제들의 현재 값은 MySQL 1093을 피하도록 DISTINCT 파생 테이블로 먼저 구체화한다
+        String sql = "UPDATE tree_node SET c_order = (" +
+                "SELECT COUNT(*) FROM (" +
+                "SELECT DISTINCT c_id, COALESCE(c_order, c_left) AS sort_key, c_left FROM tree_node " +
+                "WHERE c_parentid = ?1 AND c_id <> ?2) s " +
+                "WHERE s.sort_key < COALESCE(tree_node.c_order, tree_node.c_left) " +
+                "OR (s.sort_key = COALESCE(tree_node.c_order, tree_node.c_left) AND (s.c_left < tree_node.c_left " +
+                "OR (s.c_left = tree_node.c_left AND s.c_id < tree_node.c_id)))) * ?3 + ?3 " +
+                "WHERE c_parentid = ?1 AND c_id <> ?2";
+        Long excluded = excludeId != null ? excludeId : 0L;
+        return nativeUpdateLocking(findIdsWhere("c_parentid = ?1 AND c_id <> ?2", parentId, excluded),
+                sql, parentId, excluded, step);
     }
     
     @Override
@@ -163,16 +815,41 @@ public class TreeNodeDaoImpl extends AbstractHibernateDao<TreeNode, Long> implem
         Root<TreeNode> root = criteria.from(TreeNode.class);
         
         search.setupSearch(builder, root);
-        Predicate predicate = search.toSinglePredicate(builder);
-        if (predicate != null) {
-            criteria.where(predicate);
+        List<Predicate> predicates = new ArrayList<>(search.getPredicates());
+        if (search.isKeyset()) {
+            // 이전 페이지 마지막 (c_left, c_id) 다음부터 인덱스를 따라 읽는다
+            predicates.add(builder.or(
+                builder.greaterThan(root.get("c_left"), search.getLastLeft()),
+                builder.and(
+                    builder.equal(root.get("c_left"), search.getLastLeft()),
+                    builder.greaterThan(root.get("c_id"), search.getLastId())
+                )
+            ));
+        }
+        if (!predicates.isEmpty()) {
+            criteria.where(predicates.toArray(new Predicate[0]));
         }
         
-        if (!search.getOrders().isEmpty()) {
+        // 키셋 페이징은 (c_left, c_id) 순서를 전제로 하므로 사용자 정렬은 OFFSET 페이징에서만 적용
+        if (!search.isKeyset() && !search.getOrders().isEmpty()) {
             criteria.orderBy(search.getOrders());
+        } else {
+            criteria.orderBy(builder.asc(root.get("c_left")), builder.asc(root.get("c_id")));
         }
         
-        return getCurrentSession().createQuery(criteria).getResultList();
+        int pageUnit = search.getPageUnit();
+        if (pageUnit <= 0) {
+            return getCurrentSession().createQuery(criteria).getResultList();
+        }
+        
+        // 한 건을 더 읽어 전체 건수 조회 없이 다음 페이지 존재 여부를 판단
+        Query<TreeNode> query = getCurrentSession().createQuery(criteria).setMaxResults(pageUnit + 1);
+        if (!search.isKeyset()) {
+            query.setFirstResult(Math.max(search.getPageIndex() - 1, 0) * pageUnit);
+        }
+        List<TreeNode> nodes = query.getResultList();
+        search.setHasNext(nodes.size() > pageUnit);
+        return search.isHasNext() ? new ArrayList<>(nodes.subList(0, pageUnit)) : nodes;
     }
     
     @Override
@@ -191,4 +868,13 @@ public class TreeNodeDaoImpl extends AbstractHibernateDao<TreeNode, Long> implem
         
         return getCurrentSession().createQuery(criteria).getSingleResult().intValue();
     }
-}
\ No newline at end of file
+    
+    /**
+     * TreeNodeSummary 생성자 프로젝션을 만듭니다.
+     */
+    private CompoundSelection<TreeNodeSummary> summaryOf(CriteriaBuilder builder, Root<TreeNode> root) {
+        return builder.construct(TreeNodeSummary.class,
+                root.get("c_id"), root.get("c_parentid"), root.get("c_left"), root.get("c_right"),
+                root.get("c_level"), root.get("c_title"), root.get("c_type"));
+    }
+}
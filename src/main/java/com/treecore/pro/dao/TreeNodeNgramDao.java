@@ -0,0 +1,64 @@
+package com.treecore.pro.dao;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 트리 노드 제목 n-gram 색인 DAO 인터페이스
+ * 트리 노드 DAO의 저장/수정/삭제와 함께 호출되어 색인을 동기화합니다. 색인을 사용하지 않으면 모든 메서드는 아무 작업도 하지 않습니다.
+ */
+public interface TreeNodeNgramDao extends Serializable {
+
+    /**
+     * n-gram 색인 사용 여부를 반환합니다.
+     * @return treecore.search.ngram-index 설정값
+     */
+    boolean isEnabled();
+
+    /**
+     * 노드 제목의 n-gram 행을 현재 제목에 맞게 추가/삭제합니다. 제목이 바뀌지 않았으면 조회 한 번으로 끝납니다.
+     * @param nodeId 노드 ID
+     * @param title 노드 제목
+     */
+    void index(Long nodeId, String title);
+
+    /**
+     * 새로 저장한 노드의 n-gram 행을 기존 행 조회 없이 추가합니다.
+     * @param nodeId 새 노드 ID
+     * @param title 노드 제목
+     */
+    void indexNew(Long nodeId, String title);
+
+    /**
+     * 경계값 범위 안의 노드들을 색인합니다. 범위 복제로 새로 만들어진 노드에 사용합니다.
+     * @param left 시작 왼쪽 값
+     * @param right 끝 오른쪽 값
+     */
+    void indexRange(Long left, Long right);
+
+    /**
+     * 노드들의 n-gram 행을 삭제합니다.
+     * @param nodeIds 노드 ID 목록
+     */
+    void removeNodes(List<Long> nodeIds);
+
+    /**
+     * 경계값 범위 안의 노드들의 n-gram 행을 삭제합니다. 노드를 삭제하기 전에 호출해야 합니다.
+     * @param left 시작 왼쪽 값
+     * @param right 끝 오른쪽 값
+     */
+    void removeRange(Long left, Long right);
+
+    /**
+     * 클로저 테이블 방식 트리에서 노드와 모든 자손의 n-gram 행을 삭제합니다. 노드를 삭제하기 전에 호출해야 합니다.
+     * @param nodeId 하위 트리의 최상위 노드 ID
+     */
+    void removeSubtree(Long nodeId);
+
+    /**
+     * 트리 노드 테이블 전체로부터 색인을 다시 만듭니다.
+     * 기존 트리에서 색인을 처음 켤 때 사용합니다.
+     * @param fetchSize 한 번에 읽을 노드 수
+     */
+    void rebuild(int fetchSize);
+}
@@ -0,0 +1,179 @@
+package com.treecore.pro.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import com.treecore.pro.model.TreeNodeNgram;
+import com.treecore.pro.model.TreeNodeNgramId;
+import com.treecore.pro.util.NgramUtil;
+
+/**
+ * 트리 노드 제목 n-gram 색인 데이터 접근 구현체
+ * 색인 행은 영속성 컨텍스트를 거치지 않도록 여러 행을 한 번에 넣는 네이티브 INSERT로 추가하며,
+ * 테이블 이름은 라우팅 인터셉터가 트리별로 바꿔 준다.
+ */
+@Repository
+public class TreeNodeNgramDaoImpl extends AbstractHibernateDao<TreeNodeNgram, TreeNodeNgramId> implements TreeNodeNgramDao {
+
+    private static final long serialVersionUID = 1L;
+
+    /** INSERT 한 번에 넣을 최대 행 수 */
+    private static final int ROWS_PER_INSERT = 500;
+
+    /** n-gram 색인 사용 여부 */
+    @Value("${treecore.search.ngram-index:false}")
+    private boolean enabled;
+
+    @Autowired
+    public TreeNodeNgramDaoImpl(SessionFactory sessionFactory) {
+        setSessionFactory(sessionFactory);
+    }
+
+    @Override
+    protected Class<TreeNodeNgram> getEntityClass() {
+        return TreeNodeNgram.class;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void index(Long nodeId, String title) {
+        if (!enabled || nodeId == null) {
+            return;
+        }
+        Set<String> grams = NgramUtil.gramsOf(title);
+        List<String> existing = getCurrentSession()
+                .createQuery("SELECT g.c_gram FROM TreeNodeNgram g WHERE g.c_node_id = ?1", String.class)
+                .setParameter(1, nodeId)
+                .getResultList();
+        
+        List<String> stale = new ArrayList<>(existing);
+        stale.removeAll(grams);
+        if (!stale.isEmpty()) {
+            getCurrentSession().createQuery("DELETE FROM TreeNodeNgram WHERE c_node_id = :nodeId AND c_gram IN (:grams)")
+                    .setParameter("nodeId", nodeId)
+                    .setParameterList("grams", stale)
+                    .executeUpdate();
+        }
+        
+        grams.removeAll(existing);
+        List<Object> rows = new ArrayList<>();
+        for (String gram : grams) {
+            rows.add(gram);
+            rows.add(nodeId);
+        }
+        insertRows(rows);
+    }
+
+    @Override
+    public void indexNew(Long nodeId, String title) {
+        if (!enabled || nodeId == null) {
+            return;
+        }
+        List<Object> rows = new ArrayList<>();
+        addRows(rows, nodeId, title);
+        insertRows(rows);
+    }
+
+    @Override
+    public void indexRange(Long left, Long right) {
+        if (!enabled) {
+            return;
+        }
+        List<Object[]> nodes = getCurrentSession()
+                .createQuery("SELECT t.c_id, t.c_title FROM TreeNode t WHERE t.c_left >= ?1 AND t.c_right <= ?2", Object[].class)
+                .setParameter(1, left)
+                .setParameter(2, right)
+                .getResultList();
+        List<Object> rows = new ArrayList<>();
+        for (Object[] node : nodes) {
+            addRows(rows, (Long) node[0], (String) node[1]);
+        }
+        insertRows(rows);
+    }
+
+    @Override
+    public void removeNodes(List<Long> nodeIds) {
+        if (!enabled || nodeIds.isEmpty()) {
+            return;
+        }
+        getCurrentSession().createQuery("DELETE FROM TreeNodeNgram WHERE c_node_id IN (:ids)")
+                .setParameterList("ids", nodeIds)
+                .executeUpdate();
+    }
+
+    @Override
+    public void removeRange(Long left, Long right) {
+        if (!enabled) {
+            return;
+        }
+        bulkUpdate("DELETE FROM TreeNodeNgram WHERE c_node_id IN " +
+                "(SELECT t.c_id FROM TreeNode t WHERE t.c_left >= ?1 AND t.c_right <= ?2)",
+                left, right);
+    }
+
+    @Override
+    public void removeSubtree(Long nodeId) {
+        if (!enabled) {
+            return;
+        }
+        bulkUpdate("DELETE FROM TreeNodeNgram WHERE c_node_id IN " +
+                "(SELECT c.c_descendant FROM TreeNodeClosure c WHERE c.c_ancestor = ?1)",
+                nodeId);
+    }
+
+    @Override
+    public void rebuild(int fetchSize) {
+        bulkUpdate("DELETE FROM TreeNodeNgram");
+        
+        // 커서를 열어 둔 채 INSERT하지 않도록 c_id 키셋으로 나누어 읽는다
+        Long lastId = Long.MIN_VALUE;
+        List<Object[]> nodes;
+        do {
+            nodes = getCurrentSession()
+                    .createQuery("SELECT t.c_id, t.c_title FROM TreeNode t WHERE t.c_id > ?1 ORDER BY t.c_id", Object[].class)
+                    .setParameter(1, lastId)
+                    .setMaxResults(fetchSize)
+                    .getResultList();
+            List<Object> rows = new ArrayList<>();
+            for (Object[] node : nodes) {
+                addRows(rows, (Long) node[0], (String) node[1]);
+                lastId = (Long) node[0];
+            }
+            insertRows(rows);
+        } while (nodes.size() == fetchSize);
+    }
+
+    /**
+     * 노드 제목의 n-gram을 (n-gram, 노드 ID) 순서로 rows에 덧붙입니다.
+     */
+    private void addRows(List<Object> rows, Long nodeId, String title) {
+        for (String gram : NgramUtil.gramsOf(title)) {
+            rows.add(gram);
+            rows.add(nodeId);
+        }
+    }
+
+    /**
+     * (n-gram, 노드 ID) 값 쌍들을 여러 행 INSERT로 나누어 넣습니다.
+     */
+    private void insertRows(List<Object> rows) {
+        for (int from = 0; from < rows.size(); from += ROWS_PER_INSERT * 2) {
+            List<Object> chunk = rows.subList(from, Math.min(rows.size(), from + ROWS_PER_INSERT * 2));
+            StringBuilder sql = new StringBuilder("INSERT INTO tree_node_ngram (c_gram, c_node_id) VALUES ");
+            for (int i = 0; i < chunk.size(); i += 2) {
+                sql.append(i == 0 ? "" : ", ").append("(?").append(i + 1).append(", ?").append(i + 2).append(")");
+            }
+            nativeUpdate(sql.toString(), chunk.toArray());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.treecore.pro.dao;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.treecore.pro.interceptor.RouteTableInterceptor;
+import com.treecore.pro.model.TreeNode;
+import com.treecore.pro.service.TreeChangeListener;
+
+/**
+ * 트리 조회 결과 캐시
+ * 자식/자손/조상 조회 결과를 트리 테이블마다 따로 둔 영역에 노드 사본으로 보관하고, 적중하면 데이터베이스를 거치지 않고 사본을 반환합니다.
+ * 2차 캐시는 c_id만으로 구분되어 트리 테이블끼리 ID가 겹치므로 노드를 되살리는 데 사용하지 않습니다.
+ * 결과 전체를 보관하므로 영역 크기(max-entries)는 큰 자손 조회 결과를 고려하여 정해야 합니다.
+ * Hibernate 쿼리 캐시는 모든 트리 테이블이 공유하는 tree_node 쿼리 공간의 타임스탬프로 무효화되므로
+ * 한 트리의 변경이 다른 트리의 결과까지 버리게 되어, 변경된 트리의 영역만 비우도록 별도로 관리합니다.
+ */
+@Component
+public class TreeQueryCache implements TreeChangeListener {
+
+    /** 자식 노드 조회 영역 */
+    public static final String CHILDREN = "children";
+
+    /** 자손 노드 조회 영역 */
+    public static final String DESCENDANTS = "descendants";
+
+    /** 조상 노드 조회 영역 */
+    public static final String ANCESTORS = "ancestors";
+
+    /** 트리 테이블 이름 -> 영역 이름 -> 영역 */
+    private final Map<String, Map<String, Region>> regions = new ConcurrentHashMap<>();
+
+    /** 캐시 사용 여부 */
+    @Value("${treecore.query-cache.enabled:true}")
+    private boolean enabled;
+
+    /** 영역마다 보관할 최대 조회 결과 수 */
+    @Value("${treecore.query-cache.max-entries:1000}")
+    private int maxEntries;
+
+    /**
+     * 현재 트리 테이블의 영역에서 조회 결과를 찾고, 없으면 조회하여 보관합니다.
+     * 읽기 전용 트랜잭션에서만 캐시를 사용하며, 쓰기 트랜잭션은 아직 반영되지 않은 자기 변경을 보아야 하므로 항상 조회합니다.
+     * 적중한 결과는 영속성 컨텍스트에 속하지 않는 사본이므로 호출자가 수정해도 보관된 결과는 바뀌지 않습니다.
+     *
+     * @param regionName 영역 이름
+     * @param key 조회 조건
+     * @param loader 데이터베이스 조회
+     * @return 노드 목록
+     */
+    public List<TreeNode> get(String regionName, Object key, Supplier<List<TreeNode>> loader) {
+        if (!enabled || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+        Region region = regionFor(RouteTableInterceptor.getCurrentTreeNodeTableName(), regionName);
+
+        List<TreeNode> cached = region.get(key);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+
+        long generation = region.generation();
+        List<TreeNode> nodes = loader.get();
+        region.put(key, copyOf(nodes), generation);
+        return nodes;
+    }
+
+    /**
+     * 컬럼 값만 담은 사본 목록을 만듭니다. 사본의 제목은 이미 색인된 것으로 표시합니다.
+     */
+    private static List<TreeNode> copyOf(List<TreeNode> nodes) {
+        List<TreeNode> copies = new ArrayList<>(nodes.size());
+        for (TreeNode node : nodes) {
+            TreeNode copy = node.copy();
+            copy.markTitleIndexed();
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    @Override
+    public void treeChanged(String tableName) {
+        Map<String, Region> tableRegions = regions.get(tableName);
+        if (tableRegions != null) {
+            tableRegions.values().forEach(Region::clear);
+        }
+    }
+
+    private Region regionFor(String tableName, String regionName) {
+        return regions.computeIfAbsent(tableName, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(regionName, name -> new Region(maxEntries));
+    }
+
+    /**
+     * 최근에 사용하지 않은 결과부터 버리는 영역
+     * 비울 때마다 세대를 올려, 비우기 전에 시작한 조회의 결과가 비운 뒤에 보관되지 않도록 합니다.
+     */
+    private static final class Region {
+
+        private final Map<Object, List<TreeNode>> entries;
+
+        private long generation;
+
+        Region(int maxEntries) {
+            this.entries = new LinkedHashMap<Object, List<TreeNode>>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, List<TreeNode>> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        synchronized List<TreeNode> get(Object key) {
+            return entries.get(key);
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        synchronized void put(Object key, List<TreeNode> nodes, long startedAt) {
+            if (generation == startedAt) {
+                entries.put(key, nodes);
+            }
+        }
+
+        synchronized void clear() {
+            generation++;
+            entries.clear();
+        }
+    }
+}
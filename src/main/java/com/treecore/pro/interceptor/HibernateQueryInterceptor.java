@@ -7,9 +7,10 @@ import org.hibernate.EmptyInterceptor;
 import org.hibernate.type.Type;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
-import com.treecore.pro.util.SessionUtil;
+import com.treecore.pro.service.TreeChangePublisher;
 
 /**
  * Hibernate 쿼리 인터셉터
@@ -21,20 +22,42 @@ public class HibernateQueryInterceptor extends EmptyInterceptor {
     private static final long serialVersionUID = 1L;
     private static final Logger logger = LoggerFactory.getLogger(HibernateQueryInterceptor.class);
     private static final String DEFAULT_TABLE_NAME = "tree_node";
-    private static final String TABLE_NAME_KEY = "treeNodeTableName";
+
+    /** 트리 테이블 변경 알림 발행기, 세션 팩토리보다 늦게 만들어지므로 사용할 때 찾는다 */
+    private final transient ObjectProvider<TreeChangePublisher> changePublisher;
+
+    public HibernateQueryInterceptor(ObjectProvider<TreeChangePublisher> changePublisher) {
+        this.changePublisher = changePublisher;
+    }
 
     @Override
     public String onPrepareStatement(String sql) {
         if (sql != null && sql.contains(DEFAULT_TABLE_NAME)) {
-            String tableName = (String) SessionUtil.getSessionValue(TABLE_NAME_KEY);
-            logger.debug("동적 테이블 매핑: {} -> {}", DEFAULT_TABLE_NAME, 
-                         tableName != null ? tableName : DEFAULT_TABLE_NAME);
-            return sql.replace(DEFAULT_TABLE_NAME, tableName != null ? tableName : DEFAULT_TABLE_NAME);
+            String tableName = RouteTableInterceptor.getCurrentTreeNodeTableName();
+            logger.debug("동적 테이블 매핑: {} -> {}", DEFAULT_TABLE_NAME, tableName);
+            if (isWrite(sql)) {
+                TreeChangePublisher publisher = changePublisher.getIfAvailable();
+                if (publisher != null) {
+                    publisher.markChanged(tableName);
+                }
+            }
+            return sql.replace(DEFAULT_TABLE_NAME, tableName);
         }
         logger.debug("SQL: {}", sql);
         return sql;
     }
     
+    /**
+     * INSERT/UPDATE/DELETE/MERGE 문인지 확인합니다.
+     */
+    private boolean isWrite(String sql) {
+        String statement = sql.trim();
+        return statement.regionMatches(true, 0, "insert", 0, 6)
+                || statement.regionMatches(true, 0, "update", 0, 6)
+                || statement.regionMatches(true, 0, "delete", 0, 6)
+                || statement.regionMatches(true, 0, "merge", 0, 5);
+    }
+    
     @Override
     public boolean onFlushDirty(Object entity, Serializable id, Object[] currentState, Object[] previousState, String[] propertyNames, Type[] types) {
         logger.debug("Entity updated: {}, ID: {}", entity.getClass().getName(), id);
@@ -20,6 +20,9 @@ public class RouteTableInterceptor implements HandlerInterceptor {
     private static final String DEFAULT_TABLE_NAME = "tree_node";
     private static final String TABLE_NAME_KEY = "treeNodeTableName";
 
+    /** HTTP 요청 밖(백그라운드 작업 등)에서 사용할 테이블 이름 */
+    private static final ThreadLocal<String> tableNameOverride = new ThreadLocal<>();
+
     /**
      * 트리 노드 테이블 이름을 설정합니다.
      * @param session HTTP 세션
@@ -44,6 +47,35 @@ public class RouteTableInterceptor implements HandlerInterceptor {
         return DEFAULT_TABLE_NAME;
     }
 
+    /**
+     * 현재 요청에서 사용하는 트리 노드 테이블 이름을 가져옵니다.
+     * @return 테이블 이름, 지정되지 않았으면 기본 테이블 이름
+     */
+    public static String getCurrentTreeNodeTableName() {
+        String override = tableNameOverride.get();
+        if (override != null) {
+            return override;
+        }
+        Object tableName = SessionUtil.getSessionValue(TABLE_NAME_KEY);
+        return tableName != null ? (String) tableName : DEFAULT_TABLE_NAME;
+    }
+
+    /**
+     * 현재 스레드에서 사용할 트리 노드 테이블 이름을 지정합니다.
+     * HTTP 세션이 없는 스레드에서 특정 트리 테이블을 다룰 때 사용하며, 작업이 끝나면 반드시 해제해야 합니다.
+     * @param tableName 테이블 이름
+     */
+    public static void setCurrentTreeNodeTableName(String tableName) {
+        tableNameOverride.set(tableName);
+    }
+
+    /**
+     * 현재 스레드에 지정한 트리 노드 테이블 이름을 해제합니다.
+     */
+    public static void clearCurrentTreeNodeTableName() {
+        tableNameOverride.remove();
+    }
+
     /**
      * SQL 준비 단계에서 테이블 이름을 동적으로 변경합니다.
      * @param sql 원본 SQL 쿼리
@@ -51,8 +83,7 @@ public class RouteTableInterceptor implements HandlerInterceptor {
      */
     public String onPrepareStatement(String sql) {
         if (sql != null && sql.contains(DEFAULT_TABLE_NAME)) {
-            String tableName = (String) SessionUtil.getSessionValue(TABLE_NAME_KEY);
-            return sql.replace(DEFAULT_TABLE_NAME, tableName != null ? tableName : DEFAULT_TABLE_NAME);
+            return sql.replace(DEFAULT_TABLE_NAME, getCurrentTreeNodeTableName());
         }
         return sql;
     }
@@ -12,6 +12,8 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PostLoad;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 import javax.persistence.Temporal;
@@ -22,6 +24,7 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicInsert;
 import org.hibernate.annotations.DynamicUpdate;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -31,7 +34,11 @@ import lombok.Setter;
  * 계층적 트리 구조를 표현하는 기본 엔티티입니다.
  */
 @Entity
-@Table(name = "tree_node")
+@Table(name = "tree_node", indexes = {
+    @Index(name = "idx_tree_node_path", columnList = "c_path"),
+    @Index(name = "idx_tree_node_parent_order", columnList = "c_parentid, c_order"),
+    @Index(name = "idx_tree_node_left_level", columnList = "c_left, c_level")
+})
 @DynamicUpdate
 @DynamicInsert
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
@@ -52,10 +59,14 @@ public class TreeNode implements Serializable {
     @Column(name = "c_parentid")
     private Long c_parentid;
 
-    /** Parent의 몇 번째 자식인지를 나타냄. 0부터 시작 */
+    /** 노드가 배치될 때 Parent의 몇 번째 자식이었는지를 나타냄. 0부터 시작, 형제 순서는 c_order로 정한다 */
     @Column(name = "c_position")
     private String c_position;
 
+    /** 형제 사이의 정렬 키, 두 형제 사이에 놓일 때는 두 값의 중간값을 가진다 */
+    @Column(name = "c_order")
+    private Double c_order;
+
     /** 노드의 left 위치, 1부터 시작(Root Node) */
     @Column(name = "c_left")
     private Long c_left;
@@ -75,6 +86,10 @@ public class TreeNode implements Serializable {
     @Column(name = "c_type")
     private String c_type;
 
+    /** 루트부터 자신까지의 ID 경로(예: /1/17/342/), materialized path 사용 시에만 관리됨 */
+    @Column(name = "c_path", length = 1000)
+    private String c_path;
+
     @Transient
     private long ref;
 
@@ -139,6 +154,12 @@ public class TreeNode implements Serializable {
     @Transient
     private List<TreeNode> children;
 
+    /** 제목 n-gram 색인에 마지막으로 반영된 제목, 제목이 바뀐 경우에만 다시 색인하기 위해 사용 */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String indexedTitle;
+
     // Getters and Setters
     public Long getC_id() {
         return c_id;
@@ -164,6 +185,14 @@ public class TreeNode implements Serializable {
         this.c_position = c_position;
     }
 
+    public Double getC_order() {
+        return c_order;
+    }
+
+    public void setC_order(Double c_order) {
+        this.c_order = c_order;
+    }
+
     public Long getC_left() {
         return c_left;
     }
@@ -204,6 +233,14 @@ public class TreeNode implements Serializable {
         this.c_type = c_type;
     }
 
+    public String getC_path() {
+        return c_path;
+    }
+
+    public void setC_path(String c_path) {
+        this.c_path = c_path;
+    }
+
     public LocalDateTime getC_insdate() {
         return c_insdate;
     }
@@ -271,8 +308,15 @@ public class TreeNode implements Serializable {
         this.status = status;
     }
 
+    /**
+     * 자식 여부를 반환합니다.
+     * 클로저 테이블 방식처럼 경계값이 없는 경우 서비스가 채워 둔 값을 사용하고, 없으면 경계값으로 판단합니다.
+     */
     @Transient
     public String getChildcount() {
+        if (childcount != null) {
+            return childcount;
+        }
         if ((getC_right() - getC_left()) > 1) {
             return "InChild";
         }
@@ -490,16 +534,41 @@ public class TreeNode implements Serializable {
         this.c_insdate = createdDate;
     }
 
+    /**
+     * 조회된 제목은 이미 색인되어 있다고 봅니다.
+     */
+    @PostLoad
+    void rememberIndexedTitle() {
+        this.indexedTitle = c_title;
+    }
+
+    /**
+     * 현재 제목이 n-gram 색인에 반영되었음을 표시합니다.
+     */
+    public void markTitleIndexed() {
+        this.indexedTitle = c_title;
+    }
+
+    /**
+     * 마지막으로 색인된 뒤 제목이 바뀌었는지 확인합니다. 조회되지 않은 노드는 바뀐 것으로 봅니다.
+     * @return 다시 색인해야 하면 true
+     */
+    public boolean titleChangedSinceIndexed() {
+        return indexedTitle == null || !indexedTitle.equals(c_title);
+    }
+
     public TreeNode copy() {
         TreeNode copy = new TreeNode();
         copy.setC_id(this.c_id);
         copy.setC_parentid(this.c_parentid);
         copy.setC_position(this.c_position);
+        copy.setC_order(this.c_order);
         copy.setC_left(this.c_left);
         copy.setC_right(this.c_right);
         copy.setC_level(this.c_level);
         copy.setC_title(this.c_title);
         copy.setC_type(this.c_type);
+        copy.setC_path(this.c_path);
         copy.setC_insdate(this.c_insdate);
         copy.getAttr().putAll(this.attr);
         return copy;
@@ -511,11 +580,13 @@ public class TreeNode implements Serializable {
                 "c_id=" + c_id +
                 ", c_parentid=" + c_parentid +
                 ", c_position=" + c_position +
+                ", c_order=" + c_order +
                 ", c_left=" + c_left +
                 ", c_right=" + c_right +
                 ", c_level=" + c_level +
                 ", c_title='" + c_title + '\'' +
                 ", c_type='" + c_type + '\'' +
+                ", c_path='" + c_path + '\'' +
                 ", c_insdate=" + c_insdate +
                 '}';
     }
@@ -0,0 +1,37 @@
+package com.treecore.pro.model;
+
+import lombok.Getter;
+
+/**
+ * 폴더 펼치기용 자식 노드 요약
+ * 노드 요약에 하위 노드 수와 자식 존재 여부를 미리 계산해 담습니다.
+ */
+@Getter
+public class TreeNodeChildSummary extends TreeNodeSummary {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 모든 하위 노드 수 (자신 제외) */
+    private final int descendantCount;
+
+    /** 자식 노드 존재 여부 */
+    private final boolean hasChildren;
+
+    public TreeNodeChildSummary(Long c_id, Long c_parentid, Long c_left, Long c_right, Integer c_level,
+            String c_title, String c_type, Long descendantCount) {
+        super(c_id, c_parentid, c_left, c_right, c_level, c_title, c_type);
+        this.descendantCount = descendantCount == null ? 0 : descendantCount.intValue();
+        this.hasChildren = this.descendantCount > 0;
+    }
+
+    /**
+     * 빈 공간 없이 번호가 매겨진 트리에서 경계값으로 하위 노드 수를 계산해 만듭니다.
+     * @param summary 노드 요약
+     * @return 자식 노드 요약
+     */
+    public static TreeNodeChildSummary ofDenseBoundaries(TreeNodeSummary summary) {
+        long descendants = (summary.getC_right() - summary.getC_left() - 1) / 2;
+        return new TreeNodeChildSummary(summary.getC_id(), summary.getC_parentid(), summary.getC_left(),
+                summary.getC_right(), summary.getC_level(), summary.getC_title(), summary.getC_type(), descendants);
+    }
+}
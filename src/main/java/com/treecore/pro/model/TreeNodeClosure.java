@@ -0,0 +1,46 @@
+package com.treecore.pro.model;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 트리 노드 클로저 테이블 엔티티
+ * 모든 (조상, 자손) 쌍과 그 사이의 깊이를 저장합니다. 자기 자신과의 쌍(깊이 0)도 포함합니다.
+ * 테이블 이름이 tree_node로 시작하므로 라우팅된 트리 테이블마다 별도의 클로저 테이블을 사용합니다.
+ */
+@Entity
+@Table(name = "tree_node_closure", indexes = {
+    @Index(name = "idx_tree_node_closure_descendant", columnList = "c_descendant, c_depth")
+})
+@IdClass(TreeNodeClosureId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class TreeNodeClosure implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 조상 노드 ID */
+    @Id
+    @Column(name = "c_ancestor")
+    private Long c_ancestor;
+
+    /** 자손 노드 ID */
+    @Id
+    @Column(name = "c_descendant")
+    private Long c_descendant;
+
+    /** 조상과 자손 사이의 깊이, 자기 자신이면 0 */
+    @Column(name = "c_depth")
+    private Integer c_depth;
+}
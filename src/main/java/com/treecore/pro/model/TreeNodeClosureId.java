@@ -0,0 +1,47 @@
+package com.treecore.pro.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 트리 노드 클로저 테이블의 복합 키
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class TreeNodeClosureId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 조상 노드 ID */
+    private Long c_ancestor;
+
+    /** 자손 노드 ID */
+    private Long c_descendant;
+
+    public TreeNodeClosureId(Long c_ancestor, Long c_descendant) {
+        this.c_ancestor = c_ancestor;
+        this.c_descendant = c_descendant;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TreeNodeClosureId)) {
+            return false;
+        }
+        TreeNodeClosureId that = (TreeNodeClosureId) o;
+        return Objects.equals(c_ancestor, that.c_ancestor) && Objects.equals(c_descendant, that.c_descendant);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(c_ancestor, c_descendant);
+    }
+}
@@ -0,0 +1,47 @@
+package com.treecore.pro.model;
+
+import java.io.Serializable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 트리 노드 제목 n-gram 색인 엔티티
+ * 제목을 소문자 n-gram으로 나눈 (n-gram, 노드) 쌍을 저장하여 부분 문자열 검색 후보를 인덱스로 찾습니다.
+ * 테이블 이름이 tree_node로 시작하므로 라우팅된 트리 테이블마다 별도의 색인 테이블을 사용합니다.
+ */
+@Entity
+@Table(name = "tree_node_ngram", indexes = {
+    @Index(name = "idx_tree_node_ngram_node", columnList = "c_node_id")
+})
+@IdClass(TreeNodeNgramId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class TreeNodeNgram implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** n-gram */
+    @Id
+    @Column(name = "c_gram", length = 8)
+    private String c_gram;
+
+    /** 노드 ID */
+    @Id
+    @Column(name = "c_node_id")
+    private Long c_node_id;
+
+    public TreeNodeNgram(String c_gram, Long c_node_id) {
+        this.c_gram = c_gram;
+        this.c_node_id = c_node_id;
+    }
+}
@@ -0,0 +1,47 @@
+package com.treecore.pro.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 트리 노드 제목 n-gram 색인의 복합 키
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class TreeNodeNgramId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** n-gram */
+    private String c_gram;
+
+    /** 노드 ID */
+    private Long c_node_id;
+
+    public TreeNodeNgramId(String c_gram, Long c_node_id) {
+        this.c_gram = c_gram;
+        this.c_node_id = c_node_id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TreeNodeNgramId)) {
+            return false;
+        }
+        TreeNodeNgramId that = (TreeNodeNgramId) o;
+        return Objects.equals(c_gram, that.c_gram) && Objects.equals(c_node_id, that.c_node_id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(c_gram, c_node_id);
+    }
+}
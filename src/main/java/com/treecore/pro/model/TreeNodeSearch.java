@@ -9,6 +9,8 @@ import javax.persistence.criteria.Order;
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Root;
 
+import com.treecore.pro.util.NgramUtil;
+
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -46,6 +48,21 @@ public class TreeNodeSearch {
     /** 종료 행번호 */
     private int endRowNum = 0;
     
+    /** 전체 데이터 수 (skipCount가 false일 때만 채워짐) */
+    private int totalRecordCount = 0;
+    
+    /** true이면 전체 데이터 수 조회를 생략하고 다음 페이지 존재 여부(hasNext)만 확인 */
+    private boolean skipCount;
+    
+    /** 다음 페이지 존재 여부 */
+    private boolean hasNext;
+    
+    /** 키셋 페이징: 이전 페이지 마지막 노드의 c_left, lastId와 함께 지정하면 OFFSET 없이 그 다음 행부터 조회 */
+    private Long lastLeft;
+    
+    /** 키셋 페이징: 이전 페이지 마지막 노드의 c_id */
+    private Long lastId;
+    
     /** 쿼리 조건 목록 */
     private List<Predicate> predicates = new ArrayList<>();
     
@@ -93,7 +110,7 @@ public class TreeNodeSearch {
         }
         
         if (title != null && !title.isEmpty()) {
-            predicates.add(builder.like(root.get("c_title"), "%" + title + "%"));
+            predicates.add(builder.like(root.get("c_title"), NgramUtil.containsPattern(title), NgramUtil.LIKE_ESCAPE));
         }
         
         if (type != null && !type.isEmpty()) {
@@ -105,7 +122,7 @@ public class TreeNodeSearch {
         }
         
         if (searchString != null && !searchString.isEmpty()) {
-            predicates.add(builder.like(root.get("c_title"), "%" + searchString + "%"));
+            predicates.add(builder.like(root.get("c_title"), NgramUtil.containsPattern(searchString), NgramUtil.LIKE_ESCAPE));
         }
     }
     
@@ -121,6 +138,23 @@ public class TreeNodeSearch {
         this.lastIndex = pageIndex * pageUnit;
     }
     
+    /**
+     * 키셋 페이징 사용 여부를 반환합니다.
+     * @return 이전 페이지의 마지막 키가 지정되어 있으면 true
+     */
+    public boolean isKeyset() {
+        return lastLeft != null && lastId != null;
+    }
+    
+    /**
+     * 전체 데이터 수를 설정하고 전체 페이지 수를 계산합니다.
+     * @param totalRecordCount 전체 데이터 수
+     */
+    public void setTotalRecordCount(int totalRecordCount) {
+        this.totalRecordCount = totalRecordCount;
+        this.totalPageCount = pageUnit > 0 ? (totalRecordCount + pageUnit - 1) / pageUnit : 1;
+    }
+    
     /**
      * 정렬 조건을 추가합니다.
      * @param builder CriteriaBuilder 인스턴스
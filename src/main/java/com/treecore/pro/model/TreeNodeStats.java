@@ -0,0 +1,39 @@
+package com.treecore.pro.model;
+
+import java.io.Serializable;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * 하위 트리 통계
+ * 노드 아래 하위 트리의 노드 수, 깊이, 리프 수, 타입별 노드 수를 담습니다. 기준 노드 자신은 포함하지 않습니다.
+ */
+@Getter
+public class TreeNodeStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 기준 노드 ID */
+    private final Long nodeId;
+
+    /** 모든 하위 노드 수 */
+    private final long descendantCount;
+
+    /** 기준 노드로부터 가장 깊은 하위 노드까지의 깊이, 하위 노드가 없으면 0 */
+    private final int maxDepth;
+
+    /** 자식이 없는 하위 노드 수 */
+    private final long leafCount;
+
+    /** c_type별 하위 노드 수, 타입이 없는 노드는 빈 문자열 키 */
+    private final Map<String, Long> countByType;
+
+    public TreeNodeStats(Long nodeId, long descendantCount, int maxDepth, long leafCount, Map<String, Long> countByType) {
+        this.nodeId = nodeId;
+        this.descendantCount = descendantCount;
+        this.maxDepth = maxDepth;
+        this.leafCount = leafCount;
+        this.countByType = countByType;
+    }
+}
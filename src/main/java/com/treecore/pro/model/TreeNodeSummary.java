@@ -0,0 +1,78 @@
+package com.treecore.pro.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import lombok.Getter;
+
+/**
+ * 트리 노드 요약
+ * 목록 조회용 불변 객체로, 필요한 컬럼만 생성자 프로젝션으로 읽으므로
+ * 영속성 컨텍스트에 등록되지 않고 변경 감지 대상도 아닙니다.
+ */
+@Getter
+public class TreeNodeSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 노드 ID */
+    private final Long c_id;
+
+    /** 부모 노드 ID */
+    private final Long c_parentid;
+
+    /** 왼쪽 경계값 */
+    private final Long c_left;
+
+    /** 오른쪽 경계값 */
+    private final Long c_right;
+
+    /** 노드의 depth, 0부터 시작 */
+    private final Integer c_level;
+
+    /** 노드 제목 */
+    private final String c_title;
+
+    /** 노드 타입 */
+    private final String c_type;
+
+    public TreeNodeSummary(Long c_id, Long c_parentid, Long c_left, Long c_right, Integer c_level,
+            String c_title, String c_type) {
+        this.c_id = c_id;
+        this.c_parentid = c_parentid;
+        this.c_left = c_left;
+        this.c_right = c_right;
+        this.c_level = c_level;
+        this.c_title = c_title;
+        this.c_type = c_type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TreeNodeSummary)) {
+            return false;
+        }
+        return Objects.equals(c_id, ((TreeNodeSummary) o).c_id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(c_id);
+    }
+
+    @Override
+    public String toString() {
+        return "TreeNodeSummary{" +
+                "c_id=" + c_id +
+                ", c_parentid=" + c_parentid +
+                ", c_left=" + c_left +
+                ", c_right=" + c_right +
+                ", c_level=" + c_level +
+                ", c_title='" + c_title + '\'' +
+                ", c_type='" + c_type + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,293 @@
+package com.treecore.pro.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 트리 구조 스냅샷
+ * 한 트리 테이블의 구조를 전위 순회 순서의 기본형 배열로 담은 불변 객체입니다.
+ * 노드 i의 하위 트리는 [i, end[i]) 구간이므로 자식/자손/조상/하위 노드 수를 Hibernate 없이 계산합니다.
+ * 제목과 타입은 중복을 제거한 문자열 테이블의 인덱스로 저장합니다.
+ */
+public final class TreeSnapshot {
+
+    private final long[] ids;
+    private final long[] parents;
+    private final long[] lefts;
+    private final long[] rights;
+    private final int[] levels;
+    private final int[] titleRefs;
+    private final int[] typeRefs;
+
+    /** 노드 i의 하위 트리 다음 위치 */
+    private final int[] ends;
+
+    /** ID 오름차순으로 정렬된 ID와 그 노드의 위치 */
+    private final long[] sortedIds;
+    private final int[] sortedPositions;
+
+    private final String[] titles;
+    private final String[] types;
+
+    private TreeSnapshot(int size, String[] titles, String[] types) {
+        this.ids = new long[size];
+        this.parents = new long[size];
+        this.lefts = new long[size];
+        this.rights = new long[size];
+        this.levels = new int[size];
+        this.titleRefs = new int[size];
+        this.typeRefs = new int[size];
+        this.ends = new int[size];
+        this.sortedIds = new long[size];
+        this.sortedPositions = new int[size];
+        this.titles = titles;
+        this.types = types;
+    }
+
+    /**
+     * 노드 요약 목록으로 스냅샷을 만듭니다.
+     *
+     * @param nodes 부모 ID, 형제 순서(c_order, c_left) 순으로 정렬된 노드 요약 목록
+     * @return 스냅샷
+     */
+    public static TreeSnapshot of(List<TreeNodeSummary> nodes) {
+        int size = nodes.size();
+
+        // 입력 행을 ID로 찾기 위한 정렬 색인
+        long[] rowIds = new long[size];
+        for (int row = 0; row < size; row++) {
+            rowIds[row] = nodes.get(row).getC_id();
+        }
+        Integer[] byId = new Integer[size];
+        for (int row = 0; row < size; row++) {
+            byId[row] = row;
+        }
+        Arrays.sort(byId, (a, b) -> Long.compare(rowIds[a], rowIds[b]));
+        long[] sortedRowIds = new long[size];
+        int[] sortedRows = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedRows[i] = byId[i];
+            sortedRowIds[i] = rowIds[byId[i]];
+        }
+
+        // 같은 부모의 자식은 연속해 있으므로 첫 자식 행과 자식 수만 기록한다
+        int[] firstChild = new int[size];
+        int[] childCount = new int[size];
+        Arrays.fill(firstChild, -1);
+        List<Integer> roots = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            Long parentId = nodes.get(row).getC_parentid();
+            int idx = parentId == null ? -1 : Arrays.binarySearch(sortedRowIds, parentId);
+            if (idx < 0) {
+                roots.add(row);
+                continue;
+            }
+            int parentRow = sortedRows[idx];
+            if (firstChild[parentRow] < 0) {
+                firstChild[parentRow] = row;
+            }
+            childCount[parentRow]++;
+        }
+
+        Map<String, Integer> titleTable = new HashMap<>();
+        Map<String, Integer> typeTable = new HashMap<>();
+        int[] titleOf = new int[size];
+        int[] typeOf = new int[size];
+        for (int row = 0; row < size; row++) {
+            titleOf[row] = intern(titleTable, nodes.get(row).getC_title());
+            typeOf[row] = intern(typeTable, nodes.get(row).getC_type());
+        }
+        TreeSnapshot snapshot = new TreeSnapshot(size, toArray(titleTable), toArray(typeTable));
+
+        // 전위 순회로 위치를 정하고, 하위 트리를 모두 방문한 뒤 end를 기록한다
+        int[] rowStack = new int[size];
+        int[] posStack = new int[size];
+        int[] nextChild = new int[size];
+        int position = 0;
+        for (int root : roots) {
+            int depth = 0;
+            rowStack[0] = root;
+            posStack[0] = snapshot.place(position++, nodes.get(root), titleOf[root], typeOf[root]);
+            nextChild[0] = 0;
+            while (depth >= 0) {
+                int row = rowStack[depth];
+                if (nextChild[depth] < childCount[row]) {
+                    int child = firstChild[row] + nextChild[depth]++;
+                    depth++;
+                    rowStack[depth] = child;
+                    posStack[depth] = snapshot.place(position++, nodes.get(child), titleOf[child], typeOf[child]);
+                    nextChild[depth] = 0;
+                } else {
+                    snapshot.ends[posStack[depth]] = position;
+                    depth--;
+                }
+            }
+        }
+
+        // 부모 연결이 순환하여 루트에서 닿지 않는 노드는 찾을 수 없는 것으로 둔다
+        System.arraycopy(sortedRowIds, 0, snapshot.sortedIds, 0, size);
+        Arrays.fill(snapshot.sortedPositions, -1);
+        for (int pos = 0; pos < position; pos++) {
+            int idx = Arrays.binarySearch(sortedRowIds, snapshot.ids[pos]);
+            snapshot.sortedPositions[idx] = pos;
+        }
+        return snapshot;
+    }
+
+    /**
+     * 노드 수를 반환합니다.
+     * @return 노드 수
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * 노드가 스냅샷에 있는지 확인합니다.
+     * @param id 노드 ID
+     * @return 있으면 true
+     */
+    public boolean contains(Long id) {
+        return indexOf(id) >= 0;
+    }
+
+    /**
+     * 자식 노드 요약을 형제 순서대로 반환합니다.
+     * @param parentId 부모 노드 ID
+     * @return 자식 노드 요약 목록, 부모가 없으면 빈 목록
+     */
+    public List<TreeNodeSummary> getChildren(Long parentId) {
+        int pos = indexOf(parentId);
+        if (pos < 0) {
+            return Collections.emptyList();
+        }
+        List<TreeNodeSummary> children = new ArrayList<>();
+        for (int child = pos + 1; child < ends[pos]; child = ends[child]) {
+            children.add(summaryAt(child));
+        }
+        return children;
+    }
+
+    /**
+     * 자식 노드 요약을 하위 노드 수와 함께 반환합니다.
+     * @param parentId 부모 노드 ID
+     * @return 자식 노드 요약 목록, 부모가 없으면 빈 목록
+     */
+    public List<TreeNodeChildSummary> getChildSummaries(Long parentId) {
+        int pos = indexOf(parentId);
+        if (pos < 0) {
+            return Collections.emptyList();
+        }
+        List<TreeNodeChildSummary> children = new ArrayList<>();
+        for (int child = pos + 1; child < ends[pos]; child = ends[child]) {
+            children.add(new TreeNodeChildSummary(ids[child], parents[child], lefts[child], rights[child],
+                    levels[child], titles[titleRefs[child]], types[typeRefs[child]], (long) descendantCountAt(child)));
+        }
+        return children;
+    }
+
+    /**
+     * 노드와 모든 자손의 요약을 전위 순회 순서로 반환합니다.
+     * @param id 기준 노드 ID
+     * @return 노드를 포함한 자손 노드 요약 목록, 노드가 없으면 빈 목록
+     */
+    public List<TreeNodeSummary> getDescendants(Long id) {
+        int pos = indexOf(id);
+        if (pos < 0) {
+            return Collections.emptyList();
+        }
+        List<TreeNodeSummary> descendants = new ArrayList<>(ends[pos] - pos);
+        for (int i = pos; i < ends[pos]; i++) {
+            descendants.add(summaryAt(i));
+        }
+        return descendants;
+    }
+
+    /**
+     * 루트부터 노드 자신까지의 요약을 반환합니다.
+     * @param id 기준 노드 ID
+     * @return 조상 노드 요약 목록, 노드가 없으면 빈 목록
+     */
+    public List<TreeNodeSummary> getAncestors(Long id) {
+        List<TreeNodeSummary> ancestors = new ArrayList<>();
+        for (int pos = indexOf(id); pos >= 0; pos = indexOf(parents[pos])) {
+            ancestors.add(summaryAt(pos));
+        }
+        Collections.reverse(ancestors);
+        return ancestors;
+    }
+
+    /**
+     * 하위 트리 통계를 계산합니다.
+     * @param id 기준 노드 ID
+     * @return 하위 트리 통계, 노드가 없으면 null
+     */
+    public TreeNodeStats getStats(Long id) {
+        int pos = indexOf(id);
+        if (pos < 0) {
+            return null;
+        }
+        Map<String, Long> countByType = new LinkedHashMap<>();
+        int maxDepth = 0;
+        long leafCount = 0;
+        for (int i = pos + 1; i < ends[pos]; i++) {
+            String type = types[typeRefs[i]];
+            countByType.merge(type == null ? "" : type, 1L, Long::sum);
+            maxDepth = Math.max(maxDepth, levels[i] - levels[pos]);
+            if (ends[i] == i + 1) {
+                leafCount++;
+            }
+        }
+        return new TreeNodeStats(id, descendantCountAt(pos), maxDepth, leafCount, countByType);
+    }
+
+    private int place(int pos, TreeNodeSummary node, int titleRef, int typeRef) {
+        ids[pos] = node.getC_id();
+        parents[pos] = node.getC_parentid() == null ? 0L : node.getC_parentid();
+        lefts[pos] = node.getC_left() == null ? 0L : node.getC_left();
+        rights[pos] = node.getC_right() == null ? 0L : node.getC_right();
+        levels[pos] = node.getC_level() == null ? 0 : node.getC_level();
+        titleRefs[pos] = titleRef;
+        typeRefs[pos] = typeRef;
+        return pos;
+    }
+
+    private int indexOf(Long id) {
+        if (id == null) {
+            return -1;
+        }
+        int idx = Arrays.binarySearch(sortedIds, id);
+        return idx < 0 ? -1 : sortedPositions[idx];
+    }
+
+    private int descendantCountAt(int pos) {
+        return ends[pos] - pos - 1;
+    }
+
+    private TreeNodeSummary summaryAt(int pos) {
+        return new TreeNodeSummary(ids[pos], parents[pos], lefts[pos], rights[pos], levels[pos],
+                titles[titleRefs[pos]], types[typeRefs[pos]]);
+    }
+
+    private static int intern(Map<String, Integer> table, String value) {
+        Integer ref = table.get(value);
+        if (ref == null) {
+            ref = table.size();
+            table.put(value, ref);
+        }
+        return ref;
+    }
+
+    private static String[] toArray(Map<String, Integer> table) {
+        String[] values = new String[table.size()];
+        for (Map.Entry<String, Integer> entry : table.entrySet()) {
+            values[entry.getValue()] = entry.getKey();
+        }
+        return values;
+    }
+}
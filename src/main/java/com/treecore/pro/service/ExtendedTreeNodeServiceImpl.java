@@ -21,6 +21,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.treecore.pro.dao.TreeNodeDao;
 import com.treecore.pro.model.TreeNode;
 import com.treecore.pro.model.TreeNodeSearch;
+import com.treecore.pro.util.OrderKeyUtil;
 
 import lombok.RequiredArgsConstructor;
 
@@ -98,7 +99,7 @@ public class ExtendedTreeNodeServiceImpl implements ExtendedTreeNodeService {
         CriteriaQuery<TreeNode> criteria = builder.createQuery(TreeNode.class);
         Root<TreeNode> root = criteria.from(TreeNode.class);
         criteria.where(builder.equal(root.get("c_parentid"), node.getId()));
-        criteria.orderBy(builder.asc(root.get("c_position")));
+        criteria.orderBy(builder.asc(root.get("c_order")));
         
         return entityManager.createQuery(criteria).getResultList();
     }
@@ -116,16 +117,11 @@ public class ExtendedTreeNodeServiceImpl implements ExtendedTreeNodeService {
             String newPosition = request.getParameter("position");
             Long newParentId = Long.parseLong(request.getParameter("parent"));
             
-            // 현재 위치 저장
-            String currentPosition = existingNode.getC_position();
-            Long currentParentId = existingNode.getC_parentid();
-            
             // 새로운 위치로 이동
-            existingNode.setC_position(newPosition);
             existingNode.setC_parentid(newParentId);
             
-            // 형제 노드들의 위치 조정
-            updateSiblingPositions(currentParentId, currentPosition, newParentId, newPosition);
+            // 형제 노드들은 그대로 두고 이동한 노드의 정렬 키만 지정
+            updateSiblingOrder(existingNode, newParentId, newPosition);
             
             treeNodeDao.update(existingNode);
             return 1;
@@ -135,22 +131,11 @@ public class ExtendedTreeNodeServiceImpl implements ExtendedTreeNodeService {
 
     @Override
     public List<TreeNode> searchNode(TreeNodeSearch searchDTO) {
-        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<TreeNode> criteria = builder.createQuery(TreeNode.class);
-        Root<TreeNode> root = criteria.from(TreeNode.class);
-        
-        searchDTO.setupSearch(builder, root);
-        
-        Predicate predicate = searchDTO.toSinglePredicate(builder);
-        if (predicate != null) {
-            criteria.where(predicate);
-        }
-        
-        if (!searchDTO.getOrders().isEmpty()) {
-            criteria.orderBy(searchDTO.getOrders());
+        List<TreeNode> nodes = treeNodeDao.getBySearch(searchDTO);
+        if (!searchDTO.isSkipCount()) {
+            searchDTO.setTotalRecordCount(treeNodeDao.countBySearch(searchDTO));
         }
-        
-        return entityManager.createQuery(criteria).getResultList();
+        return nodes;
     }
 
     @Override
@@ -211,43 +196,21 @@ public class ExtendedTreeNodeServiceImpl implements ExtendedTreeNodeService {
     }
 
     /**
-     * 형제 노드들의 위치를 조정합니다.
+     * 이동한 노드가 새 부모의 newPosition 번째 자식이 되도록 앞뒤 형제의 중간값을 정렬 키로 지정합니다.
+     * 위치 값은 "first", "last" 또는 순번이며, 값이 없거나 형제 수보다 크면 맨 뒤로 놓습니다.
      */
-    private void updateSiblingPositions(Long currentParentId, String currentPosition,
-                                      Long newParentId, String newPosition) {
-        // 이전 위치의 형제 노드들 위치 조정
-        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<TreeNode> oldSiblingsCriteria = builder.createQuery(TreeNode.class);
-        Root<TreeNode> oldSiblingsRoot = oldSiblingsCriteria.from(TreeNode.class);
-        
-        Predicate oldParentPredicate = builder.equal(oldSiblingsRoot.get("c_parentid"), currentParentId);
-        Predicate oldPositionPredicate = builder.greaterThan(oldSiblingsRoot.get("c_position"), currentPosition);
-        oldSiblingsCriteria.where(builder.and(oldParentPredicate, oldPositionPredicate));
-        oldSiblingsCriteria.orderBy(builder.asc(oldSiblingsRoot.get("c_position")));
-        
-        List<TreeNode> oldSiblings = entityManager.createQuery(oldSiblingsCriteria).getResultList();
-        
-        for (TreeNode sibling : oldSiblings) {
-            int pos = Integer.parseInt(sibling.getC_position()) - 1;
-            sibling.setC_position(String.valueOf(pos));
-            treeNodeDao.update(sibling);
+    private void updateSiblingOrder(TreeNode movedNode, Long newParentId, String newPosition) {
+        Long nodeId = movedNode.getC_id();
+        int siblingCount = 0;
+        for (TreeNode sibling : treeNodeDao.findChildrenByParentId(newParentId)) {
+            if (!sibling.getC_id().equals(nodeId)) {
+                siblingCount++;
+            }
         }
+        int index = OrderKeyUtil.resolvePosition(newPosition, siblingCount);
         
-        // 새 위치의 형제 노드들 위치 조정
-        CriteriaQuery<TreeNode> newSiblingsCriteria = builder.createQuery(TreeNode.class);
-        Root<TreeNode> newSiblingsRoot = newSiblingsCriteria.from(TreeNode.class);
-        
-        Predicate newParentPredicate = builder.equal(newSiblingsRoot.get("c_parentid"), newParentId);
-        Predicate newPositionPredicate = builder.greaterThanOrEqualTo(newSiblingsRoot.get("c_position"), newPosition);
-        newSiblingsCriteria.where(builder.and(newParentPredicate, newPositionPredicate));
-        newSiblingsCriteria.orderBy(builder.asc(newSiblingsRoot.get("c_position")));
-        
-        List<TreeNode> newSiblings = entityManager.createQuery(newSiblingsCriteria).getResultList();
-        
-        for (TreeNode sibling : newSiblings) {
-            int pos = Integer.parseInt(sibling.getC_position()) + 1;
-            sibling.setC_position(String.valueOf(pos));
-            treeNodeDao.update(sibling);
-        }
+        Double order = treeNodeDao.allocateOrder(newParentId, index, nodeId);
+        movedNode.setC_position(String.valueOf(index));
+        movedNode.setC_order(order);
     }
 } 
\ No newline at end of file
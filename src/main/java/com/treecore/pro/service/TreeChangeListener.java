@@ -0,0 +1,14 @@
+package com.treecore.pro.service;
+
+/**
+ * 트리 변경 리스너
+ * 트리 노드 테이블(또는 그 클로저/색인 테이블)을 변경한 트랜잭션이 커밋된 뒤 호출됩니다.
+ */
+public interface TreeChangeListener {
+
+    /**
+     * 트리 테이블이 변경되었음을 알립니다.
+     * @param tableName 변경된 트리 노드 테이블 이름
+     */
+    void treeChanged(String tableName);
+}
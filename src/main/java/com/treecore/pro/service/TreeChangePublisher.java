@@ -0,0 +1,68 @@
+package com.treecore.pro.service;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트리 변경 알림 발행기
+ * 트랜잭션 안에서 변경된 트리 테이블을 모아 두었다가 커밋된 뒤 한 번씩 TreeChangeListener들에게 알립니다.
+ * 롤백된 트랜잭션의 변경은 알리지 않습니다.
+ */
+@Component
+public class TreeChangePublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TreeChangePublisher.class);
+
+    private final ObjectProvider<TreeChangeListener> listeners;
+
+    public TreeChangePublisher(ObjectProvider<TreeChangeListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * 트리 테이블이 변경되었음을 기록합니다.
+     * 트랜잭션 밖에서 호출되면 바로 알립니다.
+     * @param tableName 변경된 트리 노드 테이블 이름
+     */
+    @SuppressWarnings("unchecked")
+    public void markChanged(String tableName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(tableName);
+            return;
+        }
+        
+        Set<String> changed = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            Set<String> tables = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, tables);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TreeChangePublisher.this);
+                    if (status == STATUS_COMMITTED) {
+                        tables.forEach(TreeChangePublisher.this::publish);
+                    }
+                }
+            });
+            changed = tables;
+        }
+        changed.add(tableName);
+    }
+
+    private void publish(String tableName) {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.treeChanged(tableName);
+            } catch (RuntimeException e) {
+                logger.warn("트리 변경 알림 실패: {} ({})", tableName, listener.getClass().getSimpleName(), e);
+            }
+        });
+    }
+}
@@ -1,8 +1,14 @@
 package com.treecore.pro.service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import com.treecore.pro.model.TreeNode;
+import com.treecore.pro.model.TreeNodeChildSummary;
+import com.treecore.pro.model.TreeNodeSearch;
+import com.treecore.pro.model.TreeNodeStats;
+import com.treecore.pro.model.TreeNodeSummary;
 
 /**
  * 트리 노드 서비스 인터페이스
@@ -16,6 +22,13 @@ public interface TreeNodeService {
      */
     TreeNode getNodeById(Long id);
     
+    /**
+     * 여러 ID의 노드를 한 번에 조회합니다.
+     * @param ids 노드 ID 목록
+     * @return 요청 순서대로 조회된 노드 목록 (존재하지 않는 ID는 제외)
+     */
+    List<TreeNode> getNodesByIds(List<Long> ids);
+    
     /**
      * 모든 노드를 조회합니다.
      * @return 노드 목록
@@ -41,6 +54,16 @@ public interface TreeNodeService {
      */
     void deleteNode(Long id);
     
+    /**
+     * 노드와 그 자손들을 chunkSize 개씩 나누어 각각의 트랜잭션에서 삭제합니다.
+     * 수십만 개 이상의 자손을 가진 노드를 하나의 트랜잭션으로 지우지 않기 위해 사용합니다.
+     * 중첩 집합 방식에서는 각 청크가 지운 자리의 빈 구간을 같은 트랜잭션에서 닫으므로, 중간에 중단되어도 남은 트리의 번호는 빈틈이 없습니다.
+     * 클로저 테이블 방식에서도 깊은 자손부터 chunkSize 개씩 나누어 삭제합니다.
+     * @param id 삭제할 노드의 ID
+     * @param chunkSize 한 트랜잭션에서 삭제할 최대 노드 수
+     */
+    void deleteNodeInChunks(Long id, int chunkSize);
+    
     /**
      * 부모 ID로 자식 노드를 조회합니다.
      * @param parentId 부모 노드 ID
@@ -48,6 +71,21 @@ public interface TreeNodeService {
      */
     List<TreeNode> getChildNodes(Long parentId);
     
+    /**
+     * 부모 ID로 자식 노드 요약 목록을 조회합니다.
+     * @param parentId 부모 노드 ID
+     * @return 자식 노드 요약 목록
+     */
+    List<TreeNodeSummary> getChildSummaries(Long parentId);
+    
+    /**
+     * 펼쳐진 여러 폴더의 자식 노드를 한 번의 조회로 가져옵니다.
+     * 각 자식에는 하위 노드 수와 자식 존재 여부가 미리 계산되어 있습니다.
+     * @param parentIds 부모 노드 ID 목록
+     * @return 요청 순서대로 부모 ID별 자식 노드 요약 목록 (자식이 없으면 빈 목록)
+     */
+    Map<Long, List<TreeNodeChildSummary>> expandChildren(List<Long> parentIds);
+    
     /**
      * 제목으로 노드를 검색합니다.
      * @param title 검색할 제목
@@ -55,6 +93,23 @@ public interface TreeNodeService {
      */
     List<TreeNode> searchNodesByTitle(String title);
     
+    /**
+     * 제목으로 노드를 검색하여 관련도 순으로 최대 limit개를 반환합니다.
+     * @param title 검색할 제목
+     * @param limit 최대 결과 수 (1 이상)
+     * @return 검색 결과 목록
+     */
+    List<TreeNode> searchNodesByTitle(String title, int limit);
+    
+    /**
+     * 검색 조건으로 노드를 한 페이지 조회합니다.
+     * 키셋(lastLeft/lastId)이 지정되면 OFFSET 없이 이어서 조회하고,
+     * skipCount가 true이면 전체 건수 조회를 생략하고 hasNext만 채웁니다.
+     * @param search 검색 조건 (조회 후 hasNext, totalRecordCount가 채워짐)
+     * @return 검색 결과 목록
+     */
+    List<TreeNode> searchNodes(TreeNodeSearch search);
+    
     /**
      * 루트 노드를 생성합니다.
      * @param title 루트 노드의 제목
@@ -70,6 +125,23 @@ public interface TreeNodeService {
      */
     Long addChildNode(Long parentId, TreeNode node);
     
+    /**
+     * 부모 노드 아래에 여러 자식 노드를 한 번에 추가합니다.
+     * 각 노드의 children에 담긴 하위 노드들도 함께 추가되며, 경계값 이동은 전체 노드 수만큼 한 번만 수행합니다.
+     * @param parentId 부모 노드 ID
+     * @param nodes 추가할 자식 노드 목록
+     * @return 생성된 최상위 자식 노드들의 ID 목록
+     */
+    List<Long> addChildNodes(Long parentId, List<TreeNode> nodes);
+    
+    /**
+     * 여러 부모 노드 아래에 자식 노드들을 한 번에 추가합니다.
+     * 모든 부모에 필요한 공간을 하나의 UPDATE로 확보하므로, 같은 트리에 대한 여러 추가 요청을 묶어서 처리할 때 사용합니다.
+     * @param nodesByParent 부모 노드 ID별 추가할 자식 노드 목록
+     * @return 부모 노드 ID별 생성된 최상위 자식 노드들의 ID 목록
+     */
+    Map<Long, List<Long>> addChildNodesToParents(Map<Long, List<TreeNode>> nodesByParent);
+    
     /**
      * 노드를 다른 부모 노드로 이동합니다.
      * @param nodeId 이동할 노드 ID
@@ -94,6 +166,28 @@ public interface TreeNodeService {
      */
     List<TreeNode> getDescendants(Long nodeId);
     
+    /**
+     * 특정 노드와 maxDepth 단계 아래까지의 자손을 조회합니다.
+     * @param nodeId 조회할 노드 ID
+     * @param maxDepth 최대 깊이 (1 이상)
+     * @return 노드를 포함한 자손 노드 목록, 노드가 없으면 빈 목록
+     */
+    List<TreeNode> getDescendants(Long nodeId, int maxDepth);
+    
+    /**
+     * 특정 노드와 모든 자손의 요약 목록을 조회합니다.
+     * @param nodeId 조회할 노드 ID
+     * @return 노드를 포함한 자손 노드 요약 목록, 노드가 없으면 빈 목록
+     */
+    List<TreeNodeSummary> getDescendantSummaries(Long nodeId);
+    
+    /**
+     * 노드 아래 하위 트리의 통계(하위 노드 수, 최대 깊이, 리프 수, 타입별 노드 수)를 조회합니다.
+     * @param nodeId 기준 노드 ID
+     * @return 하위 트리 통계, 노드가 없으면 null
+     */
+    TreeNodeStats getSubtreeStats(Long nodeId);
+    
     /**
      * 특정 노드의 조상을 조회합니다.
      * @param nodeId 조회할 노드 ID
@@ -101,9 +195,58 @@ public interface TreeNodeService {
      */
     List<TreeNode> getAncestors(Long nodeId);
     
+    /**
+     * 여러 노드의 상위 노드 경로(breadcrumb)를 한 번의 조회로 가져옵니다.
+     * @param nodeIds 조회할 노드 ID 목록
+     * @return 요청 순서대로 노드 ID별 상위 노드 요약 목록 (루트부터 노드 자신까지), 없는 노드는 빈 목록
+     */
+    Map<Long, List<TreeNodeSummary>> getAncestorsOf(List<Long> nodeIds);
+    
+    /**
+     * 노드와 모든 자손을 한 번의 조회로 읽어 children에 자식 노드들이 채워진 트리로 반환합니다.
+     * @param nodeId 하위 트리의 최상위 노드 ID
+     * @return 최상위 노드, 노드가 없으면 null
+     */
+    TreeNode getSubtree(Long nodeId);
+    
+    /**
+     * 노드와 maxDepth 단계 아래까지의 자손을 한 번의 조회로 읽어 중첩된 트리로 반환합니다.
+     * @param nodeId 하위 트리의 최상위 노드 ID
+     * @param maxDepth 최대 깊이 (1 이상)
+     * @return 최상위 노드, 노드가 없으면 null
+     */
+    TreeNode getSubtree(Long nodeId, int maxDepth);
+    
+    /**
+     * 노드와 모든 자손을 조회 순서대로 한 건씩 consumer에 전달합니다. 결과 전체를 메모리에 올리지 않습니다.
+     * @param nodeId 하위 트리의 최상위 노드 ID
+     * @param consumer 노드를 받을 콜백
+     * @return 전달한 노드 수
+     * @throws IllegalArgumentException 노드가 없는 경우
+     */
+    long streamDescendants(Long nodeId, Consumer<TreeNode> consumer);
+    
     /**
      * 여러 노드를 일괄 추가합니다.
      * @param nodes 추가할 노드 목록
      */
     void bulkInsertNodes(List<TreeNode> nodes);
+    
+    /**
+     * 모든 노드의 c_path(materialized path)를 다시 계산합니다.
+     * 기존 트리에서 materialized path 사용을 시작할 때 한 번 실행합니다.
+     */
+    void rebuildMaterializedPaths();
+    
+    /**
+     * c_parentid 값으로부터 현재 트리 테이블의 클로저 테이블을 다시 만듭니다.
+     * 기존 Nested Set 트리를 클로저 테이블 방식으로 전환할 때 한 번 실행합니다.
+     */
+    void rebuildClosureTable();
+    
+    /**
+     * 현재 트리 테이블의 제목 n-gram 색인을 다시 만듭니다.
+     * treecore.search.ngram-index를 처음 켤 때 한 번 실행합니다.
+     */
+    void rebuildTitleIndex();
 } 
\ No newline at end of file
@@ -1,20 +1,43 @@
 package com.treecore.pro.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.treecore.pro.config.TreeStorageEngineResolver;
+import com.treecore.pro.dao.TreeNodeClosureDao;
 import com.treecore.pro.dao.TreeNodeDao;
+import com.treecore.pro.dao.TreeNodeNgramDao;
 import com.treecore.pro.model.TreeNode;
+import com.treecore.pro.model.TreeNodeChildSummary;
+import com.treecore.pro.model.TreeNodeSearch;
+import com.treecore.pro.model.TreeNodeStats;
+import com.treecore.pro.model.TreeNodeSummary;
+import com.treecore.pro.model.TreeSnapshot;
+import com.treecore.pro.util.OrderKeyUtil;
 
 import lombok.RequiredArgsConstructor;
 
@@ -29,14 +52,66 @@ public class TreeNodeServiceImpl implements TreeNodeService {
 
     private final TreeNodeDao treeNodeDao;
 
+    private final PlatformTransactionManager transactionManager;
+
+    private final TreeNodeClosureDao treeNodeClosureDao;
+
+    private final TreeStorageEngineResolver storageEngineResolver;
+
+    private final TreeWriteCoordinator writeCoordinator;
+
+    private final TreeNodeNgramDao treeNodeNgramDao;
+
+    private final TreeSnapshotRegistry snapshotRegistry;
+
+    /**
+     * 희소(sparse) 번호 모드에서 새 노드 하나에 예약하는 최대 구간 폭.
+     * 0이면 기존처럼 빈틈 없는 번호를 사용하고 삽입마다 경계값을 2씩 이동합니다.
+     */
+    @Value("${treecore.nested-set.sparse-gap:0}")
+    private long sparseGap;
+
+    /** c_path(materialized path) 컬럼 유지 여부 */
+    @Value("${treecore.tree.materialized-path:false}")
+    private boolean materializedPath;
+
+    /** 스트리밍 조회 시 한 번에 가져올 행 수, 이 수만큼 읽을 때마다 영속성 컨텍스트를 비운다 */
+    @Value("${treecore.stream.fetch-size:500}")
+    private int streamFetchSize;
+
     @Override
     public TreeNode getNodeById(Long id) {
-        return treeNodeDao.getById(id);
+        TreeNode node = treeNodeDao.getById(id);
+        if (node != null) {
+            withChildState(Collections.singletonList(node));
+        }
+        return node;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TreeNode> getNodesByIds(List<Long> ids) {
+        List<TreeNode> nodes = new ArrayList<>();
+        for (TreeNode node : treeNodeDao.getByIds(ids)) {
+            if (node != null) {
+                nodes.add(node);
+            }
+        }
+        return withChildState(nodes);
     }
 
     @Override
     public List<TreeNode> getAllNodes() {
-        return treeNodeDao.getAll();
+        List<TreeNode> nodes = treeNodeDao.getAll();
+        if (usesParentIdForChildState()) {
+            // 테이블 전체를 읽었으므로 목록의 c_parentid만으로 자식 여부를 알 수 있다
+            Set<Long> parentIds = new HashSet<>();
+            for (TreeNode node : nodes) {
+                parentIds.add(node.getC_parentid());
+            }
+            markChildState(nodes, parentIds);
+        }
+        return nodes;
     }
 
     @Override
@@ -53,68 +128,188 @@ public class TreeNodeServiceImpl implements TreeNodeService {
 
     @Override
     public void deleteNode(Long id) {
+        writeCoordinator.lockCurrentTree();
         TreeNode node = treeNodeDao.getById(id);
         if (node == null) {
             return;
         }
         
-        // 자식 노드 확인 및 삭제
-        if (node.hasChildren()) {
-            Long width = node.getC_right() - node.getC_left() + 1;
-            List<TreeNode> descendants = treeNodeDao.findNodesInRange(node.getC_left(), node.getC_right());
-            
-            // 자식 노드 삭제
-            for (TreeNode descendant : descendants) {
-                treeNodeDao.delete(descendant);
+        if (storageEngineResolver.isClosureTable()) {
+            // 클로저 테이블 방식은 경계값이 없으므로 하위 트리 행만 지운다
+            treeNodeClosureDao.deleteSubtree(id);
+            return;
+        }
+        
+        // 노드와 모든 자손을 한 번의 범위 DELETE로 삭제
+        Long width = node.getC_right() - node.getC_left() + 1;
+        treeNodeDao.deleteRange(node.getC_left(), node.getC_right());
+        
+        // 남은 노드들의 경계값 업데이트 (희소 번호 모드에서는 빈 구간을 그대로 여유 공간으로 둔다)
+        if (!isSparse()) {
+            treeNodeDao.shiftBoundaries(node.getC_right() + 1, -width);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void deleteNodeInChunks(Long id, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        
+        // 자손을 깊은 쪽(클로저 테이블) 또는 c_left 역순(중첩 집합)으로 잘라 각각의 트랜잭션에서 삭제한다.
+        // 각 노드는 자신의 자손과 함께 또는 그 뒤에 지워지고 중첩 집합의 빈 구간도 같은 트랜잭션에서 닫으므로,
+        // 중간에 중단되어도 커밋된 시점마다 남은 노드들은 빈틈없는 올바른 트리를 이룬다.
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                writeCoordinator.lockCurrentTree();
+                TreeNode node = treeNodeDao.getById(id);
+                if (node == null) {
+                    return 0;
+                }
+                return deleteDescendantChunk(node, chunkSize);
+            });
+        } while (deleted != null && deleted > 0);
+        
+        // 마지막으로 노드 자신을 삭제하고 빈 공간을 닫는다
+        transactionTemplate.executeWithoutResult(status -> deleteNode(id));
+    }
+
+    /**
+     * 노드의 자손 중 가장 나중에 놓인 최대 chunkSize 개를 삭제합니다.
+     * 중첩 집합 방식에서는 지워진 위치들이 남은 조상들의 right 값으로 나뉜 몇 개의 구간을 이루므로,
+     * 구간마다 그 폭만큼 뒤쪽 경계값을 당기는 하나의 UPDATE로 빈 공간을 닫습니다.
+     * @return 삭제된 노드 수
+     */
+    private int deleteDescendantChunk(TreeNode node, int chunkSize) {
+        if (storageEngineResolver.isClosureTable()) {
+            List<Long> ids = treeNodeClosureDao.findDeepestDescendantIds(node.getC_id(), chunkSize);
+            return ids.isEmpty() ? 0 : treeNodeClosureDao.deleteNodes(ids);
+        }
+        
+        Long from = treeNodeDao.findChunkStart(node.getC_left(), node.getC_right(), chunkSize);
+        Long to = node.getC_right() - 1;
+        if (from > to) {
+            return 0;
+        }
+        List<Long> enclosingRights = isSparse() ? Collections.emptyList() : treeNodeDao.findEnclosingRights(from, to);
+        int deleted = treeNodeDao.deleteRange(from, to);
+        if (deleted == 0 || isSparse()) {
+            return deleted;
+        }
+        
+        List<Long> points = new ArrayList<>();
+        List<Long> widths = new ArrayList<>();
+        long start = from;
+        for (Long bound : enclosingRights) {
+            if (bound > start) {
+                points.add(start);
+                widths.add(start - bound);
             }
-            
-            // 남은 노드들의 경계값 업데이트
-            String updateLeftHql = "UPDATE TreeNode SET c_left = c_left - :width WHERE c_left > :right";
-            String updateRightHql = "UPDATE TreeNode SET c_right = c_right - :width WHERE c_right > :right";
-            
-            treeNodeDao.bulkUpdate(updateLeftHql, width, node.getC_right());
-            treeNodeDao.bulkUpdate(updateRightHql, width, node.getC_right());
-        } else {
-            // 단일 노드 삭제
-            treeNodeDao.delete(node);
-            
-            // 남은 노드들의 경계값 업데이트
-            String updateLeftHql = "UPDATE TreeNode SET c_left = c_left - 2 WHERE c_left > :right";
-            String updateRightHql = "UPDATE TreeNode SET c_right = c_right - 2 WHERE c_right > :right";
-            
-            treeNodeDao.bulkUpdate(updateLeftHql, node.getC_right());
-            treeNodeDao.bulkUpdate(updateRightHql, node.getC_right());
+            start = bound + 1;
         }
+        if (start <= to) {
+            points.add(start);
+            widths.add(start - to - 1);
+        }
+        treeNodeDao.shiftBoundariesAt(points, widths);
+        return deleted;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TreeNode> getChildNodes(Long parentId) {
-        return treeNodeDao.findChildrenByParentId(parentId);
+        return withChildState(treeNodeDao.findChildrenByParentId(parentId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TreeNodeSummary> getChildSummaries(Long parentId) {
+        TreeSnapshot snapshot = snapshotRegistry.current();
+        if (snapshot != null) {
+            return snapshot.getChildren(parentId);
+        }
+        return treeNodeDao.findChildSummaries(parentId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, List<TreeNodeChildSummary>> expandChildren(List<Long> parentIds) {
+        Map<Long, List<TreeNodeChildSummary>> expanded = new LinkedHashMap<>();
+        for (Long parentId : parentIds) {
+            expanded.put(parentId, new ArrayList<>());
+        }
+        if (expanded.isEmpty()) {
+            return expanded;
+        }
+        TreeSnapshot snapshot = snapshotRegistry.current();
+        if (snapshot != null) {
+            for (Long parentId : expanded.keySet()) {
+                expanded.get(parentId).addAll(snapshot.getChildSummaries(parentId));
+            }
+            return expanded;
+        }
+        // 희소 번호 모드에서는 경계값 사이에 빈 공간이 있으므로 실제 하위 노드 수를 센다
+        List<Long> ids = new ArrayList<>(expanded.keySet());
+        for (TreeNodeChildSummary child : treeNodeDao.findChildSummaries(ids, !isSparse())) {
+            expanded.get(child.getC_parentid()).add(child);
+        }
+        return expanded;
     }
 
     @Override
     public List<TreeNode> searchNodesByTitle(String title) {
-        return treeNodeDao.findNodesByTitle(title);
+        return withChildState(treeNodeDao.findNodesByTitle(title));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TreeNode> searchNodesByTitle(String title, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1: " + limit);
+        }
+        return withChildState(treeNodeDao.findNodesByTitle(title, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TreeNode> searchNodes(TreeNodeSearch search) {
+        List<TreeNode> nodes = treeNodeDao.getBySearch(search);
+        if (!search.isSkipCount()) {
+            search.setTotalRecordCount(treeNodeDao.countBySearch(search));
+        }
+        return withChildState(nodes);
     }
 
     @Override
     public TreeNode createRootNode(String title) {
+        writeCoordinator.lockCurrentTree();
         TreeNode rootNode = new TreeNode();
         rootNode.setC_id(1L);
         rootNode.setC_parentid(0L);  // 루트 노드는 부모가 없음
         rootNode.setC_position("0");
+        rootNode.setC_order(OrderKeyUtil.STEP);
         rootNode.setC_left(1L);
         rootNode.setC_right(2L);
         rootNode.setC_level(0);
         rootNode.setC_title(title);
         rootNode.setC_insdate(LocalDateTime.now());
+        if (materializedPath) {
+            rootNode.setC_path("/1/");
+        }
         
         treeNodeDao.save(rootNode);
+        if (storageEngineResolver.isClosureTable()) {
+            treeNodeClosureDao.insertNode(rootNode.getC_id(), rootNode.getC_parentid());
+        }
         return treeNodeDao.getById(1L);
     }
 
     @Override
     public Long addChildNode(Long parentId, TreeNode node) {
+        writeCoordinator.lockCurrentTree();
         // 부모 노드 조회
         TreeNode parentNode = treeNodeDao.getById(parentId);
         if (parentNode == null) {
@@ -125,35 +320,129 @@ public class TreeNodeServiceImpl implements TreeNodeService {
         List<TreeNode> siblings = treeNodeDao.findChildrenByParentId(parentId);
         int position = siblings.size();
         
-        // 노드 경계값 업데이트를 위한 설정
-        Long right = parentNode.getC_right();
+        if (storageEngineResolver.isClosureTable()) {
+            // 클로저 테이블 방식은 다른 노드의 경계값을 건드리지 않고 새 노드의 클로저 행만 추가
+            node.setC_parentid(parentId);
+            node.setC_position(String.valueOf(position));
+            node.setC_order(treeNodeDao.allocateOrder(parentId, position, null));
+            node.setC_left(0L);
+            node.setC_right(0L);
+            node.setC_level(parentNode.getC_level() + 1);
+            node.setC_insdate(LocalDateTime.now());
+            treeNodeDao.save(node);
+            treeNodeClosureDao.insertNode(node.getC_id(), parentId);
+            if (materializedPath) {
+                node.setC_path(pathOf(parentNode) + node.getC_id() + "/");
+            }
+            return node.getC_id();
+        }
         
-        // 새 노드 삽입을 위한 공간 확보
-        String updateLeftHql = "UPDATE TreeNode SET c_left = c_left + 2 WHERE c_left >= :right";
-        String updateRightHql = "UPDATE TreeNode SET c_right = c_right + 2 WHERE c_right >= :right";
+        // 마지막 자식 뒤의 여유 공간 계산
+        long lastRight = lastChildRight(parentNode, siblings);
+        long width = 2;
+        if (isSparse()) {
+            // 뒤에 올 형제들을 위해 여유 공간의 절반 이상은 남겨 둔다
+            long free = parentNode.getC_right() - lastRight - 1;
+            width = Math.max(2, Math.min(sparseGap + 1, free / 2));
+        }
         
-        treeNodeDao.bulkUpdate(updateLeftHql, right);
-        treeNodeDao.bulkUpdate(updateRightHql, right);
+        // 새 노드 삽입을 위한 공간 확보
+        Long left = reserveGap(parentNode, lastRight, parentNode.getC_right(), width);
         
         // 새 노드 설정
         node.setC_parentid(parentId);
         node.setC_position(String.valueOf(position));
-        node.setC_left(right);
-        node.setC_right(right + 1);
+        node.setC_order(treeNodeDao.allocateOrder(parentId, position, null));
+        node.setC_left(left);
+        node.setC_right(left + width - 1);
         node.setC_level(parentNode.getC_level() + 1);
         node.setC_insdate(LocalDateTime.now());
         
-        // 부모 노드의 오른쪽 경계 업데이트
-        parentNode.setC_right(parentNode.getC_right() + 2);
-        treeNodeDao.update(parentNode);
-        
         // 새 노드 저장
         treeNodeDao.save(node);
+        if (materializedPath) {
+            node.setC_path(pathOf(parentNode) + node.getC_id() + "/");
+        }
         return node.getC_id();
     }
 
+    @Override
+    public List<Long> addChildNodes(Long parentId, List<TreeNode> nodes) {
+        return addChildNodesToParents(Collections.singletonMap(parentId, nodes)).get(parentId);
+    }
+
+    @Override
+    public Map<Long, List<Long>> addChildNodesToParents(Map<Long, List<TreeNode>> nodesByParent) {
+        writeCoordinator.lockCurrentTree();
+        boolean closure = storageEngineResolver.isClosureTable();
+        
+        // 부모마다 형제 조회와 정렬 키 계산은 한 번만 수행하고, 공간이 부족한 부모의 right 위치를 모은다
+        Map<Long, TreeNode> parents = new LinkedHashMap<>();
+        Map<Long, Integer> positions = new HashMap<>();
+        Map<Long, Long> lastRights = new HashMap<>();
+        TreeMap<Long, Long> shifts = new TreeMap<>();
+        for (Map.Entry<Long, List<TreeNode>> entry : nodesByParent.entrySet()) {
+            Long parentId = entry.getKey();
+            TreeNode parentNode = treeNodeDao.getById(parentId);
+            if (parentNode == null) {
+                throw new IllegalArgumentException("Parent node not found with id: " + parentId);
+            }
+            if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                continue;
+            }
+            
+            List<TreeNode> siblings = treeNodeDao.findChildrenByParentId(parentId);
+            parents.put(parentId, parentNode);
+            positions.put(parentId, siblings.size());
+            if (!closure) {
+                long lastRight = lastChildRight(parentNode, siblings);
+                long width = 2 * countNodes(entry.getValue());
+                long free = parentNode.getC_right() - lastRight - 1;
+                lastRights.put(parentId, lastRight);
+                if (free < width) {
+                    shifts.put(parentNode.getC_right(), gapShift(parentNode, free, width));
+                }
+            }
+        }
+        
+        // 모든 부모에 필요한 공간을 한 번의 UPDATE로 확보
+        if (!shifts.isEmpty()) {
+            treeNodeDao.shiftBoundariesAt(new ArrayList<>(shifts.keySet()), new ArrayList<>(shifts.values()));
+            
+            // 벌크 업데이트는 영속성 컨텍스트에 반영되지 않으므로 부모 노드들의 값을 직접 맞춰 준다
+            for (TreeNode parentNode : parents.values()) {
+                parentNode.setC_left(shifted(parentNode.getC_left(), shifts));
+                parentNode.setC_right(shifted(parentNode.getC_right(), shifts));
+                treeNodeDao.update(parentNode);
+            }
+        }
+        
+        Map<Long, List<Long>> ids = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, List<TreeNode>> entry : nodesByParent.entrySet()) {
+            Long parentId = entry.getKey();
+            List<Long> created = new ArrayList<>();
+            ids.put(parentId, created);
+            TreeNode parentNode = parents.get(parentId);
+            if (parentNode == null) {
+                continue;
+            }
+            
+            int position = positions.get(parentId);
+            Double order = treeNodeDao.allocateOrder(parentId, position, null);
+            long left = closure ? 0 : shifted(lastRights.get(parentId), shifts) + 1;
+            for (TreeNode node : entry.getValue()) {
+                left = saveSubtree(node, parentNode, position++, order, left, closure, now);
+                order += OrderKeyUtil.STEP;
+                created.add(node.getC_id());
+            }
+        }
+        return ids;
+    }
+
     @Override
     public void moveNode(Long nodeId, Long newParentId, String position) {
+        writeCoordinator.lockCurrentTree();
         TreeNode node = treeNodeDao.getById(nodeId);
         TreeNode newParent = treeNodeDao.getById(newParentId);
         
@@ -161,100 +450,72 @@ public class TreeNodeServiceImpl implements TreeNodeService {
             throw new IllegalArgumentException("Node or new parent not found");
         }
         
-        // 노드를 이동할 수 없는 경우 체크
-        if (node.getC_left() < newParent.getC_left() && node.getC_right() > newParent.getC_right()) {
+        if (storageEngineResolver.isClosureTable()) {
+            moveNodeInClosureTable(node, newParent, position);
+            return;
+        }
+        
+        // 자기 자신이나 자손 노드 아래로는 이동할 수 없음
+        if (newParent.getC_left() >= node.getC_left() && newParent.getC_right() <= node.getC_right()) {
             throw new IllegalArgumentException("Cannot move a node to one of its descendants");
         }
         
         // 이동 노드와 그 자손들의 너비
-        Long width = node.getC_right() - node.getC_left() + 1;
-        
-        // 현재 노드의 위치 정보 저장
         Long oldLeft = node.getC_left();
         Long oldRight = node.getC_right();
-        Long oldParentId = node.getC_parentid();
-        int oldLevel = node.getC_level();
-        
-        // 새 부모의 위치 정보
-        Long newParentRight = newParent.getC_right();
-        int newLevel = newParent.getC_level() + 1;
-        
-        // 1. 이동할 트리 노드를 임시 공간으로 옮기기(음수 값 사용)
-        String tempMoveHql = "UPDATE TreeNode SET " +
-                "c_left = (c_left - :oldLeft) * -1, " +
-                "c_right = (c_right - :oldLeft) * -1, " +
-                "c_level = c_level - :oldLevel + :newLevel " +
-                "WHERE c_left >= :oldLeft AND c_right <= :oldRight";
-        
-        treeNodeDao.bulkUpdate(tempMoveHql, oldLeft, oldLeft, oldLevel, newLevel, oldLeft, oldRight);
-        
-        // 2. 원래 위치의 공간 제거
-        String updateLeftAfterRemove = "UPDATE TreeNode SET c_left = c_left - :width " +
-                "WHERE c_left > :oldRight";
-        String updateRightAfterRemove = "UPDATE TreeNode SET c_right = c_right - :width " +
-                "WHERE c_right > :oldRight";
-        
-        treeNodeDao.bulkUpdate(updateLeftAfterRemove, width, oldRight);
-        treeNodeDao.bulkUpdate(updateRightAfterRemove, width, oldRight);
-        
-        // 3. 새 위치의 공간 확보
-        Long newLeft;
-        if (oldLeft > newParentRight) { // 이동 후 인덱스가 감소하는 경우 보정
-            newLeft = newParentRight - width;
-        } else {
-            newLeft = newParentRight - 1;
-        }
-        
-        String updateLeftForInsert = "UPDATE TreeNode SET c_left = c_left + :width " +
-                "WHERE c_left > :newLeft";
-        String updateRightForInsert = "UPDATE TreeNode SET c_right = c_right + :width " +
-                "WHERE c_right > :newLeft";
-        
-        treeNodeDao.bulkUpdate(updateLeftForInsert, width, newLeft);
-        treeNodeDao.bulkUpdate(updateRightForInsert, width, newLeft);
-        
-        // 4. 임시 공간의 노드들을 새 위치로 이동
-        String moveToFinalHql = "UPDATE TreeNode SET " +
-                "c_left = (c_left * -1) + :newLeft, " +
-                "c_right = (c_right * -1) + :newLeft, " +
-                "c_parentid = :newParentId " +
-                "WHERE c_left < 0";
-        
-        treeNodeDao.bulkUpdate(moveToFinalHql, newLeft, newLeft, newParentId);
-        
-        // 5. 이동한 노드 업데이트
-        List<TreeNode> siblings = treeNodeDao.findChildrenByParentId(newParentId);
-        int positionIndex = siblings.size() - 1; // 마지막 위치로 이동
-        
-        node = treeNodeDao.getById(nodeId); // 변경된 노드 정보 다시 로드
-        node.setC_position(String.valueOf(positionIndex));
-        
-        // 이동된 노드와 자손 노드들의 위치값 업데이트
-        if (position != null && !position.isEmpty() && siblings.size() > 1) {
-            int requestedPosition = Integer.parseInt(position);
-            if (requestedPosition >= 0 && requestedPosition < siblings.size()) {
-                // 형제 노드들 재정렬
-                for (int i = 0; i < siblings.size(); i++) {
-                    TreeNode sibling = siblings.get(i);
-                    if (sibling.getC_id().equals(nodeId)) {
-                        sibling.setC_position(String.valueOf(requestedPosition));
-                    } else {
-                        int siblingPos = Integer.parseInt(sibling.getC_position());
-                        if (siblingPos >= requestedPosition) {
-                            sibling.setC_position(String.valueOf(siblingPos + 1));
-                            treeNodeDao.update(sibling);
-                        }
-                    }
-                }
-                node.setC_position(String.valueOf(requestedPosition));
+        long width = oldRight - oldLeft + 1;
+        int levelDelta = newParent.getC_level() + 1 - node.getC_level();
+        
+        // 새 부모의 자식들(이동할 노드 제외) 사이에서 삽입 위치의 앞뒤 경계값 계산
+        List<TreeNode> siblings = new ArrayList<>();
+        for (TreeNode sibling : treeNodeDao.findChildrenByParentId(newParentId)) {
+            if (!sibling.getC_id().equals(nodeId)) {
+                siblings.add(sibling);
             }
         }
+        int index = OrderKeyUtil.resolvePosition(position, siblings.size());
+        long prevBound = index == 0 ? newParent.getC_left() : siblings.get(index - 1).getC_right();
+        long nextBound = index < siblings.size() ? siblings.get(index).getC_left() : newParent.getC_right();
         
+        // 경로는 경계값이 바뀌기 전에 계산해 둔다
+        String oldPath = materializedPath ? pathOf(node) : null;
+        String newPath = materializedPath ? pathOf(newParent) + nodeId + "/" : null;
+        
+        long newLeft;
+        if (nextBound - prevBound - 1 >= width) {
+            // 목표 위치에 하위 트리가 들어갈 빈 구간이 있으면 하위 트리 행만 옮긴다
+            newLeft = prevBound + 1;
+            if (newLeft != oldLeft || levelDelta != 0) {
+                treeNodeDao.translateSubtree(oldLeft, oldRight, newLeft - oldLeft, levelDelta);
+            }
+        } else {
+            // 이전 위치와 새 위치 사이 구간만 한 번의 UPDATE로 재번호
+            newLeft = nextBound > oldRight ? nextBound - width : nextBound;
+            treeNodeDao.moveSubtree(oldLeft, oldRight, nextBound, levelDelta);
+        }
+        
+        // 다른 형제들은 그대로 두고 이동한 노드만 앞뒤 형제 사이의 정렬 키를 받는다
+        Double order = treeNodeDao.allocateOrder(newParentId, index, nodeId);
+        
+        // 하위 트리 경로의 접두사 교체
+        if (materializedPath) {
+            treeNodeDao.replacePathPrefix(oldPath, newPath);
+            node.setC_path(newPath);
+        }
+        
+        // 벌크 업데이트는 영속성 컨텍스트에 반영되지 않으므로 이동한 노드의 값을 직접 맞춰 준다
+        node.setC_parentid(newParentId);
+        node.setC_position(String.valueOf(index));
+        node.setC_order(order);
+        node.setC_left(newLeft);
+        node.setC_right(newLeft + width - 1);
+        node.setC_level(node.getC_level() + levelDelta);
         treeNodeDao.update(node);
     }
 
     @Override
     public Long copyNode(Long sourceNodeId, Long targetParentId, String position) {
+        writeCoordinator.lockCurrentTree();
         // 원본 노드와 대상 부모 노드 조회
         TreeNode sourceNode = treeNodeDao.getById(sourceNodeId);
         TreeNode targetParentNode = treeNodeDao.getById(targetParentId);
@@ -263,64 +524,194 @@ public class TreeNodeServiceImpl implements TreeNodeService {
             throw new IllegalArgumentException("Source node or target parent node not found");
         }
         
-        // 원본 노드의 자손 노드들 조회
-        List<TreeNode> descendants = null;
-        if (sourceNode.hasChildren()) {
-            descendants = treeNodeDao.findNodesInRange(sourceNode.getC_left(), sourceNode.getC_right());
+        if (storageEngineResolver.isClosureTable()) {
+            return copyNodeInClosureTable(sourceNode, targetParentNode, position);
         }
         
-        // 새 노드 생성
-        TreeNode newNode = sourceNode.copy();
-        newNode.setC_id(null); // ID는 자동 생성되도록 null로 설정
-        newNode.setC_parentid(targetParentId);
+        // 자기 자신이나 자손 노드 아래로는 복사할 수 없음
+        if (targetParentNode.getC_left() >= sourceNode.getC_left()
+                && targetParentNode.getC_right() <= sourceNode.getC_right()) {
+            throw new IllegalArgumentException("Cannot copy a node into itself or one of its descendants");
+        }
         
-        // 대상 위치에 새 노드 추가
-        Long newNodeId = addChildNode(targetParentId, newNode);
+        long width = sourceNode.getC_right() - sourceNode.getC_left() + 1;
+        int levelDelta = targetParentNode.getC_level() + 1 - sourceNode.getC_level();
         
-        // 자손 노드들을 새 노드 아래로 복사
-        if (descendants != null && !descendants.isEmpty()) {
-            TreeNode newNodeWithId = treeNodeDao.getById(newNodeId);
-            
-            for (TreeNode descendant : descendants) {
-                if (!descendant.getC_id().equals(sourceNodeId)) { // 원본 노드 제외
-                    TreeNode newDescendant = descendant.copy();
-                    newDescendant.setC_id(null);
-                    
-                    // 상대적 위치 계산
-                    int levelDiff = descendant.getC_level() - sourceNode.getC_level();
-                    newDescendant.setC_level(newNodeWithId.getC_level() + levelDiff);
-                    
-                    if (descendant.getC_parentid().equals(sourceNodeId)) {
-                        newDescendant.setC_parentid(newNodeId);
-                    } else {
-                        // 부모 노드 ID 매핑 필요
-                        // 이 부분은 실제 구현에서 복잡할 수 있음
-                    }
-                    
-                    treeNodeDao.save(newDescendant);
-                }
-            }
+        // 대상 부모의 자식들 사이에서 삽입 위치의 앞뒤 경계값 계산
+        List<TreeNode> siblings = treeNodeDao.findChildrenByParentId(targetParentId);
+        int index = OrderKeyUtil.resolvePosition(position, siblings.size());
+        long prevBound = index == 0 ? targetParentNode.getC_left() : siblings.get(index - 1).getC_right();
+        long nextBound = index < siblings.size() ? siblings.get(index).getC_left() : targetParentNode.getC_right();
+        
+        String parentPath = materializedPath ? pathOf(targetParentNode) : null;
+        
+        // 하위 트리 폭만큼의 공간을 한 번에 확보
+        long parentRightBefore = targetParentNode.getC_right();
+        long newLeft = reserveGap(targetParentNode, prevBound, nextBound, width);
+        long shift = targetParentNode.getC_right() - parentRightBefore;
+        
+        // 공간 확보로 원본이 밀렸을 수 있으므로 현재 경계값을 다시 계산
+        long sourceLeft = sourceNode.getC_left() >= nextBound ? sourceNode.getC_left() + shift : sourceNode.getC_left();
+        long offset = newLeft - sourceLeft;
+        
+        // 원본 범위 전체를 한 번의 INSERT ... SELECT로 복제하고 부모 ID를 일괄 재매핑
+        treeNodeDao.cloneRange(sourceLeft, sourceLeft + width - 1, offset, levelDelta);
+        treeNodeDao.remapClonedParents(newLeft, newLeft + width - 1, offset);
+        
+        // 복제된 최상위 노드를 대상 부모 아래에 연결
+        TreeNode newNode = treeNodeDao.findByLeft(newLeft);
+        newNode.setC_parentid(targetParentId);
+        newNode.setC_position(String.valueOf(index));
+        newNode.setC_order(treeNodeDao.allocateOrder(targetParentId, index, newNode.getC_id()));
+        treeNodeDao.update(newNode);
+        
+        // 복제본들은 새 ID를 가지므로 경로를 위에서부터 다시 계산
+        if (materializedPath) {
+            newNode.setC_path(parentPath + newNode.getC_id() + "/");
+            treeNodeDao.rebuildPaths(newLeft, newLeft + width - 1);
         }
         
-        return newNodeId;
+        return newNode.getC_id();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TreeNode> getDescendants(Long nodeId) {
         TreeNode node = treeNodeDao.getById(nodeId);
         if (node == null) {
             return new ArrayList<>();
         }
-        return treeNodeDao.findDescendants(node);
+        return withChildState(treeNodeDao.findDescendants(node));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<TreeNode> getDescendants(Long nodeId, int maxDepth) {
+        checkDepth(maxDepth);
+        TreeNode node = treeNodeDao.getById(nodeId);
+        if (node == null) {
+            return new ArrayList<>();
+        }
+        return withChildState(treeNodeDao.findDescendants(node, maxDepth));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TreeNodeSummary> getDescendantSummaries(Long nodeId) {
+        TreeSnapshot snapshot = snapshotRegistry.current();
+        if (snapshot != null) {
+            return snapshot.getDescendants(nodeId);
+        }
+        TreeNode node = treeNodeDao.getById(nodeId);
+        if (node == null) {
+            return new ArrayList<>();
+        }
+        return treeNodeDao.findDescendantSummaries(node);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TreeNodeStats getSubtreeStats(Long nodeId) {
+        TreeSnapshot snapshot = snapshotRegistry.current();
+        if (snapshot != null) {
+            return snapshot.getStats(nodeId);
+        }
+        TreeNode node = treeNodeDao.getById(nodeId);
+        if (node == null) {
+            return null;
+        }
+        // 빈 공간 없는 번호 매김에서는 경계값만으로 하위 노드가 없음을 알 수 있다
+        if (!isSparse() && !storageEngineResolver.isClosureTable() && node.getC_right() - node.getC_left() == 1) {
+            return new TreeNodeStats(nodeId, 0, 0, 0, new LinkedHashMap<>());
+        }
+        return treeNodeDao.findSubtreeStats(node, !isSparse());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<TreeNode> getAncestors(Long nodeId) {
         TreeNode node = treeNodeDao.getById(nodeId);
         if (node == null) {
             return new ArrayList<>();
         }
-        return treeNodeDao.findAncestors(node);
+        return withChildState(treeNodeDao.findAncestors(node));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, List<TreeNodeSummary>> getAncestorsOf(List<Long> nodeIds) {
+        Map<Long, List<TreeNodeSummary>> breadcrumbs = new LinkedHashMap<>();
+        if (nodeIds.isEmpty()) {
+            return breadcrumbs;
+        }
+        TreeSnapshot snapshot = snapshotRegistry.current();
+        if (snapshot != null) {
+            for (Long nodeId : nodeIds) {
+                breadcrumbs.put(nodeId, snapshot.getAncestors(nodeId));
+            }
+            return breadcrumbs;
+        }
+        Map<Long, List<TreeNodeSummary>> found = treeNodeDao.findAncestorSummaries(nodeIds);
+        for (Long nodeId : nodeIds) {
+            breadcrumbs.put(nodeId, found.getOrDefault(nodeId, new ArrayList<>()));
+        }
+        return breadcrumbs;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TreeNode getSubtree(Long nodeId) {
+        TreeNode node = treeNodeDao.getById(nodeId);
+        if (node == null) {
+            return null;
+        }
+        if (storageEngineResolver.isClosureTable()) {
+            return linkByParent(node, withChildState(treeNodeDao.findDescendants(node)));
+        }
+        return linkByBoundaries(withChildState(treeNodeDao.findNodesInRange(node.getC_left(), node.getC_right())));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TreeNode getSubtree(Long nodeId, int maxDepth) {
+        checkDepth(maxDepth);
+        TreeNode node = treeNodeDao.getById(nodeId);
+        if (node == null) {
+            return null;
+        }
+        List<TreeNode> nodes = withChildState(treeNodeDao.findDescendants(node, maxDepth));
+        if (storageEngineResolver.isClosureTable()) {
+            return linkByParent(node, nodes);
+        }
+        return linkByBoundaries(nodes);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long streamDescendants(Long nodeId, Consumer<TreeNode> consumer) {
+        TreeNode node = treeNodeDao.getById(nodeId);
+        if (node == null) {
+            throw new IllegalArgumentException("Node not found with id: " + nodeId);
+        }
+        if (!usesParentIdForChildState()) {
+            return treeNodeDao.scrollDescendants(node, streamFetchSize, consumer);
+        }
+        
+        // 경계값으로 자식 여부를 알 수 없으면 fetch 단위로 모아 한 번의 조회로 표시한 뒤 전달한다
+        List<TreeNode> batch = new ArrayList<>(streamFetchSize);
+        long count = treeNodeDao.scrollDescendants(node, streamFetchSize, streamed -> {
+            batch.add(streamed);
+            if (batch.size() == streamFetchSize) {
+                emitWithChildState(batch, consumer);
+            }
+        });
+        emitWithChildState(batch, consumer);
+        return count;
+    }
+
+    private void emitWithChildState(List<TreeNode> batch, Consumer<TreeNode> consumer) {
+        withChildState(batch).forEach(consumer);
+        batch.clear();
     }
 
     @Override
@@ -332,4 +723,303 @@ public class TreeNodeServiceImpl implements TreeNodeService {
         }
         treeNodeDao.bulkInsert(nodes);
     }
-} 
\ No newline at end of file
+
+    @Override
+    public void rebuildMaterializedPaths() {
+        writeCoordinator.lockCurrentTree();
+        for (TreeNode root : treeNodeDao.findChildrenByParentId(0L)) {
+            root.setC_path("/" + root.getC_id() + "/");
+            treeNodeDao.update(root);
+            treeNodeDao.rebuildPaths(root.getC_left(), root.getC_right());
+        }
+    }
+
+    @Override
+    public void rebuildClosureTable() {
+        writeCoordinator.lockCurrentTree();
+        treeNodeClosureDao.rebuild();
+    }
+
+    @Override
+    public void rebuildTitleIndex() {
+        writeCoordinator.lockCurrentTree();
+        treeNodeNgramDao.rebuild(streamFetchSize);
+    }
+
+    /**
+     * 경계값으로 자식 여부를 알 수 없는 모드에서 c_parentid로 조회해 채웁니다.
+     * 빈 공간 없는 중첩 집합 방식에서는 경계값으로 판단하므로 그대로 반환합니다.
+     */
+    private List<TreeNode> withChildState(List<TreeNode> nodes) {
+        if (nodes.isEmpty() || !usesParentIdForChildState()) {
+            return nodes;
+        }
+        List<Long> ids = new ArrayList<>(nodes.size());
+        for (TreeNode node : nodes) {
+            ids.add(node.getC_id());
+        }
+        markChildState(nodes, treeNodeDao.findIdsWithChildren(ids));
+        return nodes;
+    }
+
+    /**
+     * 클로저 테이블 방식은 경계값이 모두 0이고, 희소 번호 모드는 자식 없는 노드도 여유 공간만큼 넓은 구간을 가지므로
+     * 경계값 차이로 자식 여부를 판단할 수 없습니다.
+     */
+    private boolean usesParentIdForChildState() {
+        return storageEngineResolver.isClosureTable() || isSparse();
+    }
+
+    private static void markChildState(List<TreeNode> nodes, Set<Long> parentIds) {
+        for (TreeNode node : nodes) {
+            node.setChildcount(parentIds.contains(node.getC_id()) ? "InChild" : "NoChild");
+        }
+    }
+
+    /**
+     * 클로저 테이블 방식 트리에서 노드를 이동합니다. 하위 트리 바깥의 조상 쌍만 교체하므로 다른 노드의 행은 바뀌지 않습니다.
+     */
+    private void moveNodeInClosureTable(TreeNode node, TreeNode newParent, String position) {
+        Long nodeId = node.getC_id();
+        Long newParentId = newParent.getC_id();
+        
+        // 자기 자신이나 자손 노드 아래로는 이동할 수 없음
+        if (treeNodeClosureDao.isDescendant(nodeId, newParentId)) {
+            throw new IllegalArgumentException("Cannot move a node to one of its descendants");
+        }
+        
+        int count = 0;
+        for (TreeNode sibling : treeNodeDao.findChildrenByParentId(newParentId)) {
+            if (!sibling.getC_id().equals(nodeId)) {
+                count++;
+            }
+        }
+        int index = OrderKeyUtil.resolvePosition(position, count);
+        int levelDelta = newParent.getC_level() + 1 - node.getC_level();
+        
+        String oldPath = materializedPath ? pathOf(node) : null;
+        String newPath = materializedPath ? pathOf(newParent) + nodeId + "/" : null;
+        
+        Double order = treeNodeDao.allocateOrder(newParentId, index, nodeId);
+        
+        treeNodeClosureDao.moveSubtree(nodeId, newParentId);
+        if (levelDelta != 0) {
+            treeNodeClosureDao.shiftLevels(nodeId, levelDelta);
+        }
+        
+        if (materializedPath) {
+            treeNodeDao.replacePathPrefix(oldPath, newPath);
+            node.setC_path(newPath);
+        }
+        
+        // 벌크 업데이트는 영속성 컨텍스트에 반영되지 않으므로 이동한 노드의 값을 직접 맞춰 준다
+        node.setC_parentid(newParentId);
+        node.setC_position(String.valueOf(index));
+        node.setC_order(order);
+        node.setC_level(node.getC_level() + levelDelta);
+        treeNodeDao.update(node);
+    }
+
+    /**
+     * 클로저 테이블 방식 트리에서 하위 트리를 복사합니다.
+     * 중첩 집합 방식과 마찬가지로 노드 수와 관계없이 일정한 수의 INSERT ... SELECT로 복제합니다.
+     */
+    private Long copyNodeInClosureTable(TreeNode sourceNode, TreeNode targetParentNode, String position) {
+        Long targetParentId = targetParentNode.getC_id();
+        
+        // 자기 자신이나 자손 노드 아래로는 복사할 수 없음
+        if (treeNodeClosureDao.isDescendant(sourceNode.getC_id(), targetParentId)) {
+            throw new IllegalArgumentException("Cannot copy a node into itself or one of its descendants");
+        }
+        
+        int index = OrderKeyUtil.resolvePosition(position, treeNodeDao.findChildrenByParentId(targetParentId).size());
+        int levelDelta = targetParentNode.getC_level() + 1 - sourceNode.getC_level();
+        Double order = treeNodeDao.allocateOrder(targetParentId, index, null);
+        String parentPath = materializedPath ? pathOf(targetParentNode) : null;
+        
+        Long newNodeId = treeNodeClosureDao.copySubtree(sourceNode.getC_id(), targetParentId, levelDelta);
+        
+        // 복제된 최상위 노드를 대상 부모의 지정 위치에 놓는다
+        TreeNode newNode = treeNodeDao.getById(newNodeId);
+        newNode.setC_position(String.valueOf(index));
+        newNode.setC_order(order);
+        if (materializedPath) {
+            newNode.setC_path(parentPath + newNodeId + "/");
+        }
+        treeNodeDao.update(newNode);
+        
+        // 복제본들은 새 ID를 가지므로 경로를 위에서부터 다시 계산
+        if (materializedPath) {
+            treeNodeClosureDao.rebuildPaths(newNodeId);
+        }
+        return newNodeId;
+    }
+
+    /**
+     * 노드와 children에 담긴 하위 노드들을 left 값부터 차례로 번호를 매겨 저장하고, 다음 형제가 사용할 left 값을 반환합니다.
+     * 하위 노드의 부모 ID가 필요하므로 부모를 먼저 저장하며, 구간은 이미 확보되어 있으므로 경계값 이동은 없습니다.
+     */
+    private long saveSubtree(TreeNode node, TreeNode parent, int position, Double order, long left,
+                             boolean closure, LocalDateTime now) {
+        long right = left + 2 * countNodes(Collections.singletonList(node)) - 1;
+        node.setC_parentid(parent.getC_id());
+        node.setC_position(String.valueOf(position));
+        node.setC_order(order);
+        node.setC_left(closure ? 0L : left);
+        node.setC_right(closure ? 0L : right);
+        node.setC_level(parent.getC_level() + 1);
+        node.setC_insdate(now);
+        
+        treeNodeDao.save(node);
+        if (closure) {
+            treeNodeClosureDao.insertNode(node.getC_id(), parent.getC_id());
+        }
+        if (materializedPath) {
+            node.setC_path(pathOf(parent) + node.getC_id() + "/");
+        }
+        
+        if (node.hasChildren()) {
+            long childLeft = left + 1;
+            List<TreeNode> children = node.getChildren();
+            for (int i = 0; i < children.size(); i++) {
+                childLeft = saveSubtree(children.get(i), node, i, OrderKeyUtil.STEP * (i + 1), childLeft, closure, now);
+            }
+        }
+        return right + 1;
+    }
+
+    /**
+     * children에 담긴 하위 노드까지 포함한 전체 노드 수를 반환합니다.
+     */
+    private long countNodes(List<TreeNode> nodes) {
+        long count = 0;
+        for (TreeNode node : nodes) {
+            count++;
+            if (node.hasChildren()) {
+                count += countNodes(node.getChildren());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 깊이 제한 값이 1 이상인지 확인합니다.
+     */
+    private void checkDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1: " + maxDepth);
+        }
+    }
+
+    /**
+     * c_left 순으로 정렬된 하위 트리 노드들을 스택으로 한 번 훑어 부모-자식 관계를 연결하고 최상위 노드를 반환합니다.
+     * 스택에는 현재 노드의 조상들만 남으므로 각 노드는 한 번씩만 넣고 꺼냅니다.
+     */
+    private TreeNode linkByBoundaries(List<TreeNode> nodes) {
+        Deque<TreeNode> stack = new ArrayDeque<>();
+        for (TreeNode node : nodes) {
+            node.setChildren(new ArrayList<>());
+            while (!stack.isEmpty() && stack.peek().getC_right() < node.getC_left()) {
+                stack.pop();
+            }
+            if (!stack.isEmpty()) {
+                stack.peek().getChildren().add(node);
+            }
+            stack.push(node);
+        }
+        return nodes.isEmpty() ? null : nodes.get(0);
+    }
+
+    /**
+     * 클로저 테이블 방식 트리의 하위 트리 노드들을 부모 ID로 연결하고 최상위 노드를 반환합니다.
+     * 노드들은 깊이, c_order 순으로 조회되므로 부모가 항상 먼저 나오고 형제 순서도 유지됩니다.
+     */
+    private TreeNode linkByParent(TreeNode root, List<TreeNode> nodes) {
+        Map<Long, TreeNode> byId = new HashMap<>();
+        for (TreeNode node : nodes) {
+            node.setChildren(new ArrayList<>());
+            byId.put(node.getC_id(), node);
+            TreeNode parent = byId.get(node.getC_parentid());
+            if (parent != null && !node.getC_id().equals(root.getC_id())) {
+                parent.getChildren().add(node);
+            }
+        }
+        return byId.getOrDefault(root.getC_id(), root);
+    }
+
+    /**
+     * 노드의 materialized path를 반환합니다. 아직 경로가 없으면 조상 노드들의 ID로 만듭니다.
+     */
+    private String pathOf(TreeNode node) {
+        if (node.getC_path() != null) {
+            return node.getC_path();
+        }
+        StringBuilder path = new StringBuilder("/");
+        for (TreeNode ancestor : treeNodeDao.findAncestors(node)) {
+            path.append(ancestor.getC_id()).append('/');
+        }
+        return path.toString();
+    }
+
+    /**
+     * 희소 번호 모드 사용 여부를 반환합니다.
+     */
+    private boolean isSparse() {
+        return sparseGap > 0;
+    }
+
+    /**
+     * 부모 노드 안에서 마지막 자식 노드의 right 값을 반환합니다. 자식이 없으면 부모의 left 값을 반환합니다.
+     */
+    private long lastChildRight(TreeNode parentNode, List<TreeNode> children) {
+        long lastRight = parentNode.getC_left();
+        for (TreeNode child : children) {
+            lastRight = Math.max(lastRight, child.getC_right());
+        }
+        return lastRight;
+    }
+
+    /**
+     * 부모 노드 안의 두 경계값 prevBound, nextBound 사이에 width 폭의 빈 구간을 확보하고 그 시작 left 값을 반환합니다.
+     * 희소 번호 모드에서는 이미 있는 여유 공간을 그대로 사용하고, 부족할 때만 경계값을 이동합니다.
+     * 이때 부모 구간을 현재 폭 이상으로 넓혀 이후 삽입들이 다시 이동 없이 처리되도록 합니다.
+     */
+    private Long reserveGap(TreeNode parentNode, long prevBound, long nextBound, long width) {
+        long free = nextBound - prevBound - 1;
+        if (free >= width) {
+            return prevBound + 1;
+        }
+        
+        Long parentRight = parentNode.getC_right();
+        long shift = gapShift(parentNode, free, width);
+        treeNodeDao.shiftBoundaries(nextBound, shift);
+        
+        // 벌크 업데이트는 영속성 컨텍스트에 반영되지 않으므로 부모 노드의 값을 직접 맞춰 준다
+        parentNode.setC_right(parentRight + shift);
+        treeNodeDao.update(parentNode);
+        return prevBound + 1;
+    }
+
+    /**
+     * free 만큼의 여유 공간이 있는 부모 노드 안에 width 폭을 확보하기 위해 경계값을 이동할 양을 반환합니다.
+     * 희소 번호 모드에서는 이후 삽입들이 다시 이동 없이 처리되도록 부모 구간을 현재 폭 이상으로 넓힙니다.
+     */
+    private long gapShift(TreeNode parentNode, long free, long width) {
+        long shift = width - free;
+        if (isSparse()) {
+            shift += Math.max(sparseGap, parentNode.getC_right() - parentNode.getC_left() + 1);
+        }
+        return shift;
+    }
+
+    /**
+     * shiftBoundariesAt 실행 후 경계값 value가 이동한 위치를 반환합니다.
+     */
+    private long shifted(long value, TreeMap<Long, Long> shifts) {
+        long result = value;
+        for (Map.Entry<Long, Long> shift : shifts.headMap(value, true).entrySet()) {
+            result += shift.getValue();
+        }
+        return result;
+    }
+}
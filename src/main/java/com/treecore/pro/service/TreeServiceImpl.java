@@ -8,7 +8,6 @@ import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.servlet.http.HttpServletRequest;
 
@@ -19,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.treecore.pro.dao.TreeNodeDao;
 import com.treecore.pro.model.TreeNode;
+import com.treecore.pro.util.OrderKeyUtil;
 
 import lombok.RequiredArgsConstructor;
 
@@ -92,7 +92,7 @@ public class TreeServiceImpl implements TreeService {
         CriteriaQuery<TreeNode> criteria = builder.createQuery(TreeNode.class);
         Root<TreeNode> root = criteria.from(TreeNode.class);
         criteria.where(builder.equal(root.get("c_parentid"), node.getId()));
-        criteria.orderBy(builder.asc(root.get("c_position")));
+        criteria.orderBy(builder.asc(root.get("c_order")));
         
         return entityManager.createQuery(criteria).getResultList();
     }
@@ -110,16 +110,11 @@ public class TreeServiceImpl implements TreeService {
             String newPosition = request.getParameter("position");
             Long newParentId = Long.parseLong(request.getParameter("parent"));
             
-            // 현재 위치 저장
-            String currentPosition = existingNode.getPosition();
-            Long currentParentId = existingNode.getParentId();
-            
             // 새로운 위치로 이동
-            existingNode.setPosition(newPosition);
             existingNode.setParentId(newParentId);
             
-            // 형제 노드들의 위치 조정
-            updateSiblingPositions(currentParentId, currentPosition, newParentId, newPosition);
+            // 형제 노드들은 그대로 두고 이동한 노드의 정렬 키만 지정
+            updateSiblingOrder(existingNode, newParentId, newPosition);
             
             treeNodeDao.update(existingNode);
             return existingNode;
@@ -128,41 +123,21 @@ public class TreeServiceImpl implements TreeService {
     }
 
     /**
-     * 형제 노드들의 위치를 조정합니다.
+     * 이동한 노드가 새 부모의 newPosition 번째 자식이 되도록 앞뒤 형제의 중간값을 정렬 키로 지정합니다.
+     * 위치 값은 "first", "last" 또는 순번이며, 값이 없거나 형제 수보다 크면 맨 뒤로 놓습니다.
      */
-    private void updateSiblingPositions(Long currentParentId, String currentPosition,
-                                       Long newParentId, String newPosition) {
-        // 이전 위치의 형제 노드들 위치 조정
-        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<TreeNode> oldSiblingsCriteria = builder.createQuery(TreeNode.class);
-        Root<TreeNode> oldSiblingsRoot = oldSiblingsCriteria.from(TreeNode.class);
-        
-        Predicate oldParentPredicate = builder.equal(oldSiblingsRoot.get("c_parentid"), currentParentId);
-        Predicate oldPositionPredicate = builder.greaterThan(oldSiblingsRoot.get("c_position"), currentPosition);
-        oldSiblingsCriteria.where(builder.and(oldParentPredicate, oldPositionPredicate));
-        
-        List<TreeNode> oldSiblings = entityManager.createQuery(oldSiblingsCriteria).getResultList();
-        
-        for (TreeNode sibling : oldSiblings) {
-            int pos = Integer.parseInt(sibling.getPosition()) - 1;
-            sibling.setPosition(String.valueOf(pos));
-            treeNodeDao.update(sibling);
+    private void updateSiblingOrder(TreeNode movedNode, Long newParentId, String newPosition) {
+        Long nodeId = movedNode.getC_id();
+        int siblingCount = 0;
+        for (TreeNode sibling : treeNodeDao.findChildrenByParentId(newParentId)) {
+            if (!sibling.getC_id().equals(nodeId)) {
+                siblingCount++;
+            }
         }
+        int index = OrderKeyUtil.resolvePosition(newPosition, siblingCount);
         
-        // 새 위치의 형제 노드들 위치 조정
-        CriteriaQuery<TreeNode> newSiblingsCriteria = builder.createQuery(TreeNode.class);
-        Root<TreeNode> newSiblingsRoot = newSiblingsCriteria.from(TreeNode.class);
-        
-        Predicate newParentPredicate = builder.equal(newSiblingsRoot.get("c_parentid"), newParentId);
-        Predicate newPositionPredicate = builder.greaterThanOrEqualTo(newSiblingsRoot.get("c_position"), newPosition);
-        newSiblingsCriteria.where(builder.and(newParentPredicate, newPositionPredicate));
-        
-        List<TreeNode> newSiblings = entityManager.createQuery(newSiblingsCriteria).getResultList();
-        
-        for (TreeNode sibling : newSiblings) {
-            int pos = Integer.parseInt(sibling.getPosition()) + 1;
-            sibling.setPosition(String.valueOf(pos));
-            treeNodeDao.update(sibling);
-        }
+        Double order = treeNodeDao.allocateOrder(newParentId, index, nodeId);
+        movedNode.setPosition(String.valueOf(index));
+        movedNode.setC_order(order);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.treecore.pro.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.treecore.pro.dao.TreeNodeDao;
+import com.treecore.pro.interceptor.RouteTableInterceptor;
+import com.treecore.pro.model.TreeSnapshot;
+
+/**
+ * 트리 스냅샷 저장소
+ * 트리 테이블마다 구조 스냅샷을 하나씩 보관합니다. 스냅샷은 요청 스레드가 아닌 별도 스레드에서 만들며,
+ * 그 테이블을 변경한 트랜잭션이 커밋되면 새로 만드는 동안 이전 스냅샷을 계속 제공합니다.
+ * 다시 만드는 간격은 최소 간격 이상으로 벌려, 그 사이의 변경들은 한 번의 재생성으로 합칩니다.
+ */
+@Component
+public class TreeSnapshotRegistry implements TreeChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TreeSnapshotRegistry.class);
+
+    private final TreeNodeDao treeNodeDao;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    /** 스냅샷을 만드는 스레드, 테이블 전체를 읽는 작업이 동시에 여러 개 실행되지 않도록 하나만 둔다 */
+    private final ScheduledExecutorService rebuilder;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** 스냅샷 사용 여부 */
+    @Value("${treecore.snapshot.enabled:false}")
+    private boolean enabled;
+
+    /** 같은 테이블의 스냅샷을 다시 만드는 최소 간격(밀리초) */
+    @Value("${treecore.snapshot.min-rebuild-interval-ms:1000}")
+    private long minRebuildIntervalMillis;
+
+    public TreeSnapshotRegistry(TreeNodeDao treeNodeDao, PlatformTransactionManager transactionManager) {
+        this.treeNodeDao = treeNodeDao;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tree-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 현재 요청의 트리 테이블 스냅샷을 반환합니다. 요청 스레드에서는 만들지 않습니다.
+     * 변경 직후에는 다시 만들어지기 전까지 이전 스냅샷이 반환되며, 아직 만들어진 적이 없으면 만들기를 예약하고 null을 반환합니다.
+     * @return 스냅샷, 스냅샷을 사용하지 않거나 아직 없으면 null
+     */
+    public TreeSnapshot current() {
+        if (!enabled) {
+            return null;
+        }
+        String tableName = RouteTableInterceptor.getCurrentTreeNodeTableName();
+        Entry entry = entries.computeIfAbsent(tableName, name -> new Entry());
+        TreeSnapshot snapshot = entry.snapshot;
+        if (snapshot == null) {
+            scheduleRebuild(tableName, entry);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void treeChanged(String tableName) {
+        Entry entry = entries.get(tableName);
+        if (entry != null) {
+            scheduleRebuild(tableName, entry);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * 스냅샷 재생성을 예약합니다. 이미 예약된 재생성이 있으면 그 재생성이 이번 변경까지 반영하므로 새로 예약하지 않습니다.
+     */
+    private void scheduleRebuild(String tableName, Entry entry) {
+        if (!entry.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long delay = Math.max(entry.lastBuildStartedAt + minRebuildIntervalMillis - System.currentTimeMillis(), 0);
+        try {
+            rebuilder.schedule(() -> rebuild(tableName, entry), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            entry.scheduled.set(false);
+            logger.debug("종료 중이어서 스냅샷 재생성 예약 실패: {}", tableName);
+        }
+    }
+
+    private void rebuild(String tableName, Entry entry) {
+        // 읽기 시작 이후에 커밋된 변경은 새 재생성을 예약하도록 먼저 표시를 지운다
+        entry.scheduled.set(false);
+        entry.lastBuildStartedAt = System.currentTimeMillis();
+
+        RouteTableInterceptor.setCurrentTreeNodeTableName(tableName);
+        try {
+            entry.snapshot = readOnlyTransaction.execute(status -> TreeSnapshot.of(treeNodeDao.findAllSummaries()));
+        } catch (RuntimeException e) {
+            // 오래된 스냅샷을 계속 제공하지 않도록 버리고, 다음 조회가 DB를 읽으며 다시 예약한다
+            entry.snapshot = null;
+            logger.warn("트리 스냅샷 생성 실패: {}", tableName, e);
+        } finally {
+            RouteTableInterceptor.clearCurrentTreeNodeTableName();
+        }
+    }
+
+    /**
+     * 트리 테이블 하나의 스냅샷과 재생성 상태
+     */
+    private static final class Entry {
+
+        volatile TreeSnapshot snapshot;
+
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        volatile long lastBuildStartedAt;
+    }
+}
@@ -0,0 +1,49 @@
+package com.treecore.pro.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.treecore.pro.interceptor.RouteTableInterceptor;
+
+/**
+ * 트리 버전 저장소
+ * 트리 테이블마다 단조 증가하는 버전을 두고, 그 테이블을 변경한 트랜잭션이 커밋될 때마다 올립니다.
+ * 버전은 조회 응답의 ETag로 쓰이며, 재시작 전에 발급한 ETag와 겹치지 않도록 시작 시각(밀리초)부터 셉니다.
+ */
+@Component
+public class TreeVersionRegistry implements TreeChangeListener {
+
+    private final long startedAt = System.currentTimeMillis();
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * 현재 요청의 트리 테이블 버전을 반환합니다.
+     * @return 트리 버전
+     */
+    public long currentVersion() {
+        return versionOf(RouteTableInterceptor.getCurrentTreeNodeTableName()).get();
+    }
+
+    /**
+     * 현재 요청의 트리 테이블 버전으로 만든 ETag 값을 반환합니다.
+     * 라우팅된 테이블이 바뀌어도 같은 값이 나오지 않도록 테이블 이름을 포함합니다.
+     * @return 따옴표 없는 ETag 값 (예: tree_node-1739512345678)
+     */
+    public String currentETag() {
+        String tableName = RouteTableInterceptor.getCurrentTreeNodeTableName();
+        return tableName + "-" + versionOf(tableName).get();
+    }
+
+    @Override
+    public void treeChanged(String tableName) {
+        versionOf(tableName).incrementAndGet();
+    }
+
+    private AtomicLong versionOf(String tableName) {
+        return versions.computeIfAbsent(tableName, name -> new AtomicLong(startedAt));
+    }
+}
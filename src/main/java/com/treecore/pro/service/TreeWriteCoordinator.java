@@ -0,0 +1,68 @@
+package com.treecore.pro.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.treecore.pro.interceptor.RouteTableInterceptor;
+
+/**
+ * 트리 구조 변경 조정기
+ * 라우팅된 트리 테이블마다 하나의 쓰기 잠금을 두어 같은 트리의 구조 변경(경계값 이동)은 순서대로 실행하고,
+ * 서로 다른 트리의 변경은 병렬로 실행되도록 합니다. 잠금은 현재 트랜잭션이 끝날 때 해제됩니다.
+ * 잠금은 애플리케이션 인스턴스 안에서만 유효합니다.
+ */
+@Component
+public class TreeWriteCoordinator {
+
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    /** 잠금 대기 최대 시간(밀리초) */
+    @Value("${treecore.tree.write-lock-timeout-ms:10000}")
+    private long lockTimeoutMillis;
+
+    /**
+     * 현재 요청의 트리 테이블 쓰기 잠금을 획득합니다.
+     * 트랜잭션 안에서 호출되면 커밋 또는 롤백 후 잠금이 해제됩니다.
+     * @throws CannotAcquireLockException 제한 시간 안에 잠금을 얻지 못한 경우
+     */
+    public void lockCurrentTree() {
+        lockTree(RouteTableInterceptor.getCurrentTreeNodeTableName());
+    }
+
+    /**
+     * 지정한 트리 테이블의 쓰기 잠금을 획득합니다.
+     * @param tableName 트리 노드 테이블 이름
+     * @throws CannotAcquireLockException 제한 시간 안에 잠금을 얻지 못한 경우
+     */
+    public void lockTree(String tableName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Tree write lock requires an active transaction");
+        }
+        
+        ReentrantLock lock = locks.computeIfAbsent(tableName, name -> new ReentrantLock(true));
+        try {
+            if (!lock.tryLock(lockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException("Timed out waiting for write lock on tree: " + tableName);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for write lock on tree: " + tableName, e);
+        }
+        
+        // 같은 스레드가 여러 번 획득하면 획득한 횟수만큼 해제된다
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+}
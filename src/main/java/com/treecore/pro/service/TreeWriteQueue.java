@@ -0,0 +1,204 @@
+package com.treecore.pro.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.treecore.pro.interceptor.RouteTableInterceptor;
+import com.treecore.pro.model.TreeNode;
+
+/**
+ * 트리 구조 변경 요청 병합 큐
+ * 같은 트리 테이블에 짧은 시간 안에 들어온 자식 노드 추가 요청들을 모아 하나의 트랜잭션에서
+ * 한 번의 경계값 이동으로 처리하고, 각 요청의 Future를 생성된 노드 ID로 완료합니다.
+ */
+@Component
+public class TreeWriteQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(TreeWriteQueue.class);
+
+    private final TreeNodeService treeNodeService;
+
+    private final ScheduledExecutorService scheduler;
+
+    /** 트리 테이블별 대기 중인 요청 */
+    private final Map<String, List<PendingAddition>> pending = new HashMap<>();
+
+    /** 종료 여부, pending으로 동기화 */
+    private boolean shutdown;
+
+    /** 요청을 모으는 시간(밀리초) */
+    @Value("${treecore.write-queue.window-ms:20}")
+    private long windowMillis;
+
+    /** 이 수만큼 요청이 모이면 대기 시간과 관계없이 바로 처리 */
+    @Value("${treecore.write-queue.max-batch:500}")
+    private int maxBatch;
+
+    public TreeWriteQueue(@Qualifier("treeNodeServiceImpl") TreeNodeService treeNodeService,
+                          @Value("${treecore.write-queue.threads:4}") int threads) {
+        this.treeNodeService = treeNodeService;
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "tree-write-queue");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 자식 노드 추가 요청을 현재 요청의 트리 테이블 큐에 넣습니다.
+     * 큐가 종료된 뒤에는 요청을 받지 않고 IllegalStateException으로 실패한 Future를 반환합니다.
+     * @param parentId 부모 노드 ID
+     * @param node 추가할 자식 노드, children에 하위 노드를 함께 담을 수 있음
+     * @return 생성된 노드 ID로 완료되는 Future
+     */
+    public CompletableFuture<Long> submitChild(Long parentId, TreeNode node) {
+        // 처리 스레드에는 HTTP 세션이 없으므로 테이블 이름을 요청 스레드에서 미리 정해 둔다
+        String tableName = RouteTableInterceptor.getCurrentTreeNodeTableName();
+        PendingAddition addition = new PendingAddition(parentId, node);
+        
+        boolean first;
+        boolean full;
+        synchronized (pending) {
+            if (shutdown) {
+                addition.future.completeExceptionally(new IllegalStateException("Tree write queue is shut down"));
+                return addition.future;
+            }
+            List<PendingAddition> queue = pending.computeIfAbsent(tableName, name -> new ArrayList<>());
+            first = queue.isEmpty();
+            queue.add(addition);
+            full = queue.size() >= maxBatch;
+        }
+        
+        try {
+            if (full) {
+                scheduler.execute(() -> flush(tableName));
+            } else if (first) {
+                scheduler.schedule(() -> flush(tableName), windowMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            // 종료 표시 전에 큐에 들어간 요청은 shutdown()이 처리하므로 예약하지 못해도 남지 않는다
+            logger.debug("종료 중인 큐에 처리 예약 실패: {}", tableName);
+        }
+        return addition.future;
+    }
+
+    /**
+     * 트리 테이블에 모인 요청들을 처리합니다.
+     */
+    private void flush(String tableName) {
+        List<PendingAddition> batch;
+        synchronized (pending) {
+            batch = pending.remove(tableName);
+        }
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        
+        RouteTableInterceptor.setCurrentTreeNodeTableName(tableName);
+        try {
+            apply(batch);
+        } finally {
+            RouteTableInterceptor.clearCurrentTreeNodeTableName();
+        }
+    }
+
+    /**
+     * 요청들을 부모별로 묶어 한 번에 추가합니다.
+     * 실패하면 한 요청의 오류가 다른 요청까지 실패시키지 않도록 하나씩 다시 처리합니다.
+     * Error 등으로 중단되더라도 요청한 쪽이 계속 기다리지 않도록 모든 Future를 완료합니다.
+     */
+    private void apply(List<PendingAddition> batch) {
+        Map<Long, List<TreeNode>> nodesByParent = new LinkedHashMap<>();
+        for (PendingAddition addition : batch) {
+            nodesByParent.computeIfAbsent(addition.parentId, id -> new ArrayList<>()).add(addition.node);
+        }
+        
+        Throwable failure = null;
+        try {
+            treeNodeService.addChildNodesToParents(nodesByParent);
+            for (PendingAddition addition : batch) {
+                addition.future.complete(addition.node.getC_id());
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            logger.debug("병합된 추가 요청 {}건 처리 실패, 개별 처리로 전환: {}", batch.size(), e.getMessage());
+            for (PendingAddition addition : batch) {
+                // 롤백된 트랜잭션에서 받은 ID는 버린다
+                resetIds(Collections.singletonList(addition.node));
+                apply(Collections.singletonList(addition));
+            }
+        } catch (Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            for (PendingAddition addition : batch) {
+                if (!addition.future.isDone()) {
+                    addition.future.completeExceptionally(failure != null ? failure
+                            : new IllegalStateException("Child node addition was not applied"));
+                }
+            }
+        }
+    }
+
+    private void resetIds(List<TreeNode> nodes) {
+        for (TreeNode node : nodes) {
+            node.setC_id(null);
+            if (node.hasChildren()) {
+                resetIds(node.getChildren());
+            }
+        }
+    }
+
+    /**
+     * 남은 요청들을 처리한 뒤 처리 스레드를 종료합니다.
+     */
+    @PreDestroy
+    public void shutdown() {
+        List<String> tableNames;
+        synchronized (pending) {
+            shutdown = true;
+            tableNames = new ArrayList<>(pending.keySet());
+        }
+        for (String tableName : tableNames) {
+            flush(tableName);
+        }
+        scheduler.shutdown();
+    }
+
+    /**
+     * 대기 중인 자식 노드 추가 요청
+     */
+    private static class PendingAddition {
+
+        private final Long parentId;
+
+        private final TreeNode node;
+
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        PendingAddition(Long parentId, TreeNode node) {
+            this.parentId = parentId;
+            this.node = node;
+        }
+    }
+}
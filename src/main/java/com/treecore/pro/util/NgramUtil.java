@@ -0,0 +1,70 @@
+package com.treecore.pro.util;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 제목 부분 문자열 검색용 n-gram 관련 유틸리티 클래스
+ * 한글 제목은 두 글자 단어가 많으므로 2-gram(bigram)을 사용합니다.
+ */
+public class NgramUtil {
+
+    /** n-gram 길이 */
+    public static final int GRAM_SIZE = 2;
+
+    /** LIKE 패턴의 이스케이프 문자 */
+    public static final char LIKE_ESCAPE = '!';
+
+    private NgramUtil() {
+        // 유틸리티 클래스이므로 인스턴스화 방지
+    }
+
+    /**
+     * 문자열을 소문자로 바꾼 뒤 공백을 포함하지 않는 n-gram 집합으로 나눕니다.
+     * 
+     * @param text 대상 문자열
+     * @return n-gram 집합, 문자열이 GRAM_SIZE보다 짧으면 빈 집합
+     */
+    public static Set<String> gramsOf(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (text == null) {
+            return grams;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i + GRAM_SIZE <= normalized.length(); i++) {
+            String gram = normalized.substring(i, i + GRAM_SIZE);
+            if (gram.chars().noneMatch(Character::isWhitespace)) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * LIKE 패턴에서 와일드카드로 해석되지 않도록 %, _ 와 이스케이프 문자를 이스케이프합니다.
+     * 
+     * @param text 사용자 입력
+     * @return LIKE_ESCAPE로 이스케이프된 문자열
+     */
+    public static String escapeLike(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * 부분 일치 LIKE 패턴을 만듭니다.
+     * 
+     * @param text 사용자 입력
+     * @return %입력% 형식의 이스케이프된 패턴
+     */
+    public static String containsPattern(String text) {
+        return "%" + escapeLike(text) + "%";
+    }
+}
@@ -0,0 +1,66 @@
+package com.treecore.pro.util;
+
+/**
+ * 형제 노드 정렬 키(c_order) 관련 유틸리티 클래스
+ * 새 노드는 앞뒤 형제 값의 중간값을 받으므로 다른 형제의 값은 바뀌지 않습니다.
+ */
+public class OrderKeyUtil {
+
+    /** 끝에 추가되는 노드와 직전 형제 사이의 간격 */
+    public static final double STEP = 1024.0;
+
+    private OrderKeyUtil() {
+        // 유틸리티 클래스이므로 인스턴스화 방지
+    }
+
+    /**
+     * 두 형제 사이에 놓일 정렬 키를 계산합니다.
+     * 
+     * @param prev 앞 형제의 정렬 키, 맨 앞이면 null
+     * @param next 뒤 형제의 정렬 키, 맨 뒤이면 null
+     * @return 정렬 키, 두 값 사이에 더 이상 표현 가능한 중간값이 없으면 null
+     */
+    public static Double between(Double prev, Double next) {
+        if (prev == null && next == null) {
+            return STEP;
+        }
+        if (prev == null) {
+            return next - STEP;
+        }
+        if (next == null) {
+            return prev + STEP;
+        }
+        double middle = prev + (next - prev) / 2;
+        if (middle <= prev || middle >= next) {
+            return null;
+        }
+        return middle;
+    }
+
+    /**
+     * 이동/복사 요청의 위치 값("first", "last" 또는 0부터 시작하는 순번)을 형제 목록의 인덱스로 변환합니다.
+     * 값이 없으면 맨 뒤로, 형제 수보다 큰 순번도 맨 뒤로 봅니다.
+     *
+     * @param position 위치 값
+     * @param siblingCount 옮겨지는 노드를 제외한 형제 수
+     * @return 0 이상 siblingCount 이하의 인덱스
+     * @throws IllegalArgumentException 음수이거나 숫자가 아닌 위치 값
+     */
+    public static int resolvePosition(String position, int siblingCount) {
+        if (position == null || position.isEmpty() || "last".equals(position)) {
+            return siblingCount;
+        }
+        if ("first".equals(position)) {
+            return 0;
+        }
+        try {
+            int index = Integer.parseInt(position);
+            if (index < 0) {
+                throw new IllegalArgumentException("Invalid position: " + position);
+            }
+            return Math.min(index, siblingCount);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid position: " + position);
+        }
+    }
+}
@@ -19,11 +19,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -245,6 +247,24 @@ public class TreeNodeControllerTest {
         verify(treeNodeService, times(1)).getChildNodes(1L);
     }
 
+    @Test
+    void testGetChildNodesNotModifiedWhenTreeUnchanged() throws Exception {
+        when(treeNodeService.getChildNodes(1L)).thenReturn(Arrays.asList(childNode));
+
+        MvcResult first = mockMvc.perform(get("/api/nodes/children/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        // 트리가 바뀌지 않았으면 서비스를 호출하지 않고 304로 응답한다
+        mockMvc.perform(get("/api/nodes/children/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+
+        verify(treeNodeService, times(1)).getChildNodes(1L);
+    }
+
     @Test
     void testSearchNodesByTitle() throws Exception {
         List<TreeNode> nodes = Arrays.asList(rootNode, childNode);
@@ -1,20 +1,28 @@
 package com.treecore.pro.dao;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.treecore.pro.model.TreeNode;
+import com.treecore.pro.model.TreeNodeSearch;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -24,6 +32,14 @@ public class TreeNodeDaoTest {
     @Autowired
     private TreeNodeDao treeNodeDao;
 
+    @Autowired
+    private TreeNodeNgramDao ngramDao;
+
+    @AfterEach
+    void tearDown() {
+        usePaths(false);
+    }
+
     @Test
     void testSave() {
         // given
@@ -246,7 +262,181 @@ public class TreeNodeDaoTest {
         assertEquals(2, ancestors.size());
     }
     
+    @Test
+    void testFindDescendantsByPathInLeftOrder() {
+        // given: 저장 순서와 c_left 순서가 다른 트리
+        TreeNode rootNode = createRootNode();
+        rootNode.setC_left(1L);
+        rootNode.setC_right(8L);
+        treeNodeDao.save(rootNode);
+        TreeNode second = createChildNode(rootNode.getC_id(), "둘째");
+        second.setC_left(4L);
+        second.setC_right(7L);
+        treeNodeDao.save(second);
+        TreeNode grandchild = createChildNode(second.getC_id(), "손자");
+        grandchild.setC_left(5L);
+        grandchild.setC_right(6L);
+        grandchild.setC_level(2);
+        treeNodeDao.save(grandchild);
+        TreeNode first = createChildNode(rootNode.getC_id(), "첫째");
+        first.setC_left(2L);
+        first.setC_right(3L);
+        treeNodeDao.save(first);
+        savePaths(rootNode, second, grandchild, first);
+        usePaths(true);
+        
+        // when
+        List<TreeNode> descendants = treeNodeDao.findDescendants(rootNode);
+        
+        // then
+        assertEquals(Arrays.asList(rootNode.getC_id(), first.getC_id(), second.getC_id(), grandchild.getC_id()),
+                idsOf(descendants));
+    }
+    
+    @Test
+    void testFindAncestorsByPath() {
+        // given
+        TreeNode rootNode = createRootNode();
+        rootNode.setC_left(1L);
+        rootNode.setC_right(6L);
+        treeNodeDao.save(rootNode);
+        TreeNode child = createChildNode(rootNode.getC_id(), "자식");
+        child.setC_left(2L);
+        child.setC_right(5L);
+        treeNodeDao.save(child);
+        TreeNode grandchild = createChildNode(child.getC_id(), "손자");
+        grandchild.setC_left(3L);
+        grandchild.setC_right(4L);
+        grandchild.setC_level(2);
+        treeNodeDao.save(grandchild);
+        savePaths(rootNode, child, grandchild);
+        usePaths(true);
+        
+        // when
+        List<TreeNode> ancestors = treeNodeDao.findAncestors(grandchild);
+        
+        // then: 경로에 담긴 ID들이 루트부터 순서대로
+        assertEquals(Arrays.asList(rootNode.getC_id(), child.getC_id(), grandchild.getC_id()), idsOf(ancestors));
+    }
+    
+    @Test
+    void testTitleIndexFollowsUpdateAndDeleteById() {
+        // given
+        ReflectionTestUtils.setField(AopTestUtils.getTargetObject(ngramDao), "enabled", true);
+        try {
+            TreeNode node = createSampleNode("사과나무");
+            treeNodeDao.save(node);
+            
+            // when: 제목을 바꾸지 않는 수정과 제목을 바꾸는 수정
+            node.setC_position("1");
+            treeNodeDao.update(node);
+            List<TreeNode> unchanged = treeNodeDao.findNodesByTitle("사과");
+            node.setC_title("배나무");
+            treeNodeDao.update(node);
+            List<TreeNode> oldTitle = treeNodeDao.findNodesByTitle("사과");
+            List<TreeNode> newTitle = treeNodeDao.findNodesByTitle("배나");
+            treeNodeDao.deleteById(node.getC_id());
+            
+            // then
+            assertEquals(Arrays.asList(node.getC_id()), idsOf(unchanged));
+            assertTrue(oldTitle.isEmpty());
+            assertEquals(Arrays.asList(node.getC_id()), idsOf(newTitle));
+            // 남은 색인 행이 없음
+            assertEquals(0, treeNodeDao.bulkUpdate("DELETE FROM TreeNodeNgram WHERE c_node_id = ?1", node.getC_id()));
+        } finally {
+            ReflectionTestUtils.setField(AopTestUtils.getTargetObject(ngramDao), "enabled", false);
+        }
+    }
+    
+    @Test
+    void testGetBySearchSeeksPastLastKey() {
+        // given
+        for (long i = 0; i < 5; i++) {
+            TreeNode node = createChildNode(900L, "키셋" + i);
+            node.setC_left(100L + i * 2);
+            node.setC_right(101L + i * 2);
+            treeNodeDao.save(node);
+        }
+        TreeNodeSearch search = new TreeNodeSearch();
+        search.setParentId(900L);
+        search.setPageInfo(1, 2);
+        
+        // when
+        List<TreeNode> firstPage = treeNodeDao.getBySearch(search);
+        TreeNode last = firstPage.get(firstPage.size() - 1);
+        search.setLastLeft(last.getC_left());
+        search.setLastId(last.getC_id());
+        List<TreeNode> secondPage = treeNodeDao.getBySearch(search);
+        
+        // then
+        assertEquals(2, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertEquals(104L, secondPage.get(0).getC_left());
+        assertTrue(search.isHasNext());
+    }
+    
+    @Test
+    void testAllocateOrderRebalancesOnlyWhenOrdersExhausted() {
+        // given: 두 형제의 정렬 키 사이에 더 이상 중간값이 없음
+        saveOrderedChild(910L, 10L, 1.0);
+        saveOrderedChild(910L, 12L, Math.nextUp(1.0));
+        
+        // when
+        Double order = treeNodeDao.allocateOrder(910L, 1, null);
+        
+        // then: 형제들을 간격 1024로 다시 매긴 뒤 그 사이 값을 받는다
+        assertEquals(1536.0, order);
+        assertArrayEquals(new Double[] {1024.0, 2048.0}, treeNodeDao.findNeighbourOrders(910L, 1, null));
+    }
+    
+    @Test
+    void testAllocateOrderTreatsMissingOrderAsLeft() {
+        // given: c_order가 채워지지 않은 형제는 c_left 순서를 따른다
+        saveOrderedChild(920L, 10L, null);
+        saveOrderedChild(920L, 20L, null);
+        saveOrderedChild(920L, 30L, 15.0);
+        
+        // when
+        Double order = treeNodeDao.allocateOrder(920L, 2, null);
+        
+        // then: 정렬 키 10, 15, 20 중 15와 20 사이
+        assertEquals(17.5, order);
+    }
+    
     // 헬퍼 메서드
+    private void usePaths(boolean enabled) {
+        ReflectionTestUtils.setField(AopTestUtils.getTargetObject(treeNodeDao), "materializedPath", enabled);
+    }
+    
+    /**
+     * 부모가 먼저 오도록 넘긴 노드들에 부모 경로 + 자기 ID로 c_path를 채워 저장합니다.
+     */
+    private void savePaths(TreeNode... nodes) {
+        Map<Long, String> paths = new HashMap<>();
+        for (TreeNode node : nodes) {
+            String path = paths.getOrDefault(node.getC_parentid(), "/") + node.getC_id() + "/";
+            paths.put(node.getC_id(), path);
+            node.setC_path(path);
+            treeNodeDao.update(node);
+        }
+    }
+    
+    private void saveOrderedChild(Long parentId, Long left, Double order) {
+        TreeNode node = createChildNode(parentId, "정렬 " + left);
+        node.setC_left(left);
+        node.setC_right(left + 1);
+        node.setC_order(order);
+        treeNodeDao.save(node);
+    }
+    
+    private static List<Long> idsOf(List<TreeNode> nodes) {
+        List<Long> ids = new ArrayList<>();
+        for (TreeNode node : nodes) {
+            ids.add(node.getC_id());
+        }
+        return ids;
+    }
+    
     private TreeNode createSampleNode(String title) {
         TreeNode node = new TreeNode();
         node.setC_id(null);
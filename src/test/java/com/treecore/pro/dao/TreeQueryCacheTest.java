@@ -0,0 +1,147 @@
+package com.treecore.pro.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.treecore.pro.interceptor.RouteTableInterceptor;
+import com.treecore.pro.model.TreeNode;
+
+public class TreeQueryCacheTest {
+
+    private TreeQueryCache queryCache;
+
+    /** loader 호출(데이터베이스 조회) 횟수 */
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        queryCache = new TreeQueryCache();
+        ReflectionTestUtils.setField(queryCache, "enabled", true);
+        ReflectionTestUtils.setField(queryCache, "maxEntries", 100);
+        loads = new AtomicInteger();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        RouteTableInterceptor.setCurrentTreeNodeTableName("tree_node_a");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        RouteTableInterceptor.clearCurrentTreeNodeTableName();
+    }
+
+    @Test
+    void testHitDoesNotQueryDatabase() {
+        // given
+        List<TreeNode> first = children(2L, 3L);
+
+        // when
+        List<TreeNode> second = children(2L, 3L);
+
+        // then: 두 번째 조회는 보관된 사본을 반환하고 데이터베이스를 조회하지 않는다
+        assertEquals(1, loads.get());
+        assertEquals(ids(first), ids(second));
+        assertEquals("노드 2", second.get(0).getC_title());
+        assertNotSame(first.get(0), second.get(0));
+    }
+
+    @Test
+    void testCallerChangesDoNotAffectCachedResult() {
+        // given
+        children(2L).get(0).setC_title("수정된 제목");
+
+        // when
+        List<TreeNode> cached = children(2L);
+
+        // then
+        assertEquals(1, loads.get());
+        assertEquals("노드 2", cached.get(0).getC_title());
+    }
+
+    @Test
+    void testChangeInvalidatesOnlyThatTree() {
+        // given: 두 트리에서 같은 부모 ID의 자식을 캐시
+        children(2L);
+        RouteTableInterceptor.setCurrentTreeNodeTableName("tree_node_b");
+        children(7L);
+
+        // when: 트리 a만 변경
+        queryCache.treeChanged("tree_node_a");
+        children(7L);
+        RouteTableInterceptor.setCurrentTreeNodeTableName("tree_node_a");
+        children(2L);
+
+        // then: b는 캐시에서, a는 다시 조회
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testResultLoadedAcrossChangeIsNotStored() {
+        // given: 조회 도중에 트리가 변경되어 커밋됨
+        Supplier<List<TreeNode>> racingLoader = () -> {
+            loads.incrementAndGet();
+            queryCache.treeChanged("tree_node_a");
+            return nodes(2L);
+        };
+        queryCache.get(TreeQueryCache.CHILDREN, 1L, racingLoader);
+
+        // when
+        children(3L);
+
+        // then: 변경 전에 시작한 조회 결과는 보관되지 않았으므로 다시 조회한다
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testReadWriteTransactionBypassesCache() {
+        // given
+        children(2L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        // when
+        children(2L);
+        children(2L);
+
+        // then: 쓰기 트랜잭션에서는 항상 조회하고 보관된 결과를 쓰지 않는다
+        assertEquals(3, loads.get());
+    }
+
+    private List<TreeNode> children(Long... childIds) {
+        return queryCache.get(TreeQueryCache.CHILDREN, 1L, () -> {
+            loads.incrementAndGet();
+            return nodes(childIds);
+        });
+    }
+
+    private static List<TreeNode> nodes(Long... ids) {
+        List<TreeNode> nodes = new ArrayList<>();
+        for (Long id : ids) {
+            nodes.add(node(id));
+        }
+        return nodes;
+    }
+
+    private static TreeNode node(Long id) {
+        TreeNode node = new TreeNode();
+        node.setC_id(id);
+        node.setC_title("노드 " + id);
+        return node;
+    }
+
+    private static List<Long> ids(List<TreeNode> nodes) {
+        List<Long> ids = new ArrayList<>();
+        for (TreeNode node : nodes) {
+            ids.add(node.getC_id());
+        }
+        return ids;
+    }
+}
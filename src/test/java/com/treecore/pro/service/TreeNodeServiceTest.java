@@ -1,26 +1,48 @@
 package com.treecore.pro.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.treecore.pro.config.TreeStorageEngineResolver;
+import com.treecore.pro.dao.TreeNodeClosureDao;
 import com.treecore.pro.dao.TreeNodeDao;
+import com.treecore.pro.dao.TreeNodeNgramDao;
 import com.treecore.pro.model.TreeNode;
+import com.treecore.pro.model.TreeNodeChildSummary;
+import com.treecore.pro.model.TreeNodeSearch;
+import com.treecore.pro.model.TreeNodeStats;
+import com.treecore.pro.model.TreeNodeSummary;
+import com.treecore.pro.model.TreeSnapshot;
 
 @ExtendWith(MockitoExtension.class)
 @ActiveProfiles("test")
@@ -29,6 +51,24 @@ public class TreeNodeServiceTest {
     @Mock
     private TreeNodeDao treeNodeDao;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TreeNodeClosureDao treeNodeClosureDao;
+
+    @Mock
+    private TreeStorageEngineResolver storageEngineResolver;
+
+    @Mock
+    private TreeWriteCoordinator writeCoordinator;
+
+    @Mock
+    private TreeNodeNgramDao treeNodeNgramDao;
+
+    @Mock
+    private TreeSnapshotRegistry snapshotRegistry;
+
     @InjectMocks
     private TreeNodeServiceImpl treeNodeService;
 
@@ -136,6 +176,19 @@ public class TreeNodeServiceTest {
         verify(treeNodeDao, times(1)).getById(1L);
     }
 
+    @Test
+    void testGetNodesByIdsDropsMissingIds() {
+        // given
+        when(treeNodeDao.getByIds(Arrays.asList(2L, 99L, 1L))).thenReturn(Arrays.asList(childNode, null, rootNode));
+        
+        // when
+        List<TreeNode> result = treeNodeService.getNodesByIds(Arrays.asList(2L, 99L, 1L));
+        
+        // then
+        assertEquals(Arrays.asList(childNode, rootNode), result);
+        verify(treeNodeDao, never()).getById(anyLong());
+    }
+
     @Test
     void testSearchNodesByTitle() {
         // given
@@ -151,4 +204,738 @@ public class TreeNodeServiceTest {
         assertEquals(2, result.size());
         verify(treeNodeDao, times(1)).findNodesByTitle(title);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testSearchNodesByTitleWithLimit() {
+        // given
+        when(treeNodeDao.findNodesByTitle("100%", 5)).thenReturn(Arrays.asList(childNode));
+        
+        // when
+        List<TreeNode> result = treeNodeService.searchNodesByTitle("100%", 5);
+        
+        // then
+        assertEquals(Arrays.asList(childNode), result);
+        assertThrows(IllegalArgumentException.class, () -> treeNodeService.searchNodesByTitle("노드", 0));
+    }
+
+    @Test
+    void testRebuildTitleIndexRunsUnderTreeLock() {
+        // given
+        ReflectionTestUtils.setField(treeNodeService, "streamFetchSize", 500);
+        
+        // when
+        treeNodeService.rebuildTitleIndex();
+        
+        // then
+        InOrder order = inOrder(writeCoordinator, treeNodeNgramDao);
+        order.verify(writeCoordinator).lockCurrentTree();
+        order.verify(treeNodeNgramDao).rebuild(500);
+    }
+
+    @Test
+    void testSearchNodesSkipsCountWhenRequested() {
+        // given
+        TreeNodeSearch search = new TreeNodeSearch();
+        search.setPageInfo(1, 1);
+        search.setLastLeft(1L);
+        search.setLastId(1L);
+        search.setSkipCount(true);
+        when(treeNodeDao.getBySearch(search)).thenReturn(Arrays.asList(childNode));
+        
+        // when
+        List<TreeNode> result = treeNodeService.searchNodes(search);
+        
+        // then
+        assertEquals(1, result.size());
+        verify(treeNodeDao, never()).countBySearch(any(TreeNodeSearch.class));
+    }
+
+    @Test
+    void testSearchNodesCountsTotalByDefault() {
+        // given
+        TreeNodeSearch search = new TreeNodeSearch();
+        search.setPageInfo(1, 10);
+        when(treeNodeDao.getBySearch(search)).thenReturn(Arrays.asList(rootNode, childNode));
+        when(treeNodeDao.countBySearch(search)).thenReturn(25);
+        
+        // when
+        treeNodeService.searchNodes(search);
+        
+        // then
+        assertEquals(25, search.getTotalRecordCount());
+        assertEquals(3, search.getTotalPageCount());
+    }
+
+    @Test
+    void testAddChildNodeShiftsBoundariesInDenseMode() {
+        // given
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.findChildrenByParentId(1L)).thenReturn(Arrays.asList(childNode));
+        when(treeNodeDao.allocateOrder(1L, 1, null)).thenReturn(2048.0);
+        TreeNode newNode = new TreeNode();
+        newNode.setC_title("새 자식 노드");
+        
+        // when
+        treeNodeService.addChildNode(1L, newNode);
+        
+        // then
+        assertEquals(4L, newNode.getC_left());
+        assertEquals(5L, newNode.getC_right());
+        assertEquals(1, newNode.getC_level());
+        assertEquals(2048.0, newNode.getC_order());
+        assertEquals(6L, rootNode.getC_right());
+        verify(treeNodeDao, times(1)).shiftBoundaries(4L, 2L);
+        verify(treeNodeDao, times(1)).save(newNode);
+    }
+
+    @Test
+    void testAddChildNodeUsesFreeSpaceInSparseMode() {
+        // given
+        ReflectionTestUtils.setField(treeNodeService, "sparseGap", 100L);
+        rootNode.setC_right(1000L);
+        childNode.setC_right(102L);
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.findChildrenByParentId(1L)).thenReturn(Arrays.asList(childNode));
+        when(treeNodeDao.allocateOrder(1L, 1, null)).thenReturn(2048.0);
+        TreeNode newNode = new TreeNode();
+        newNode.setC_title("새 자식 노드");
+        
+        // when
+        treeNodeService.addChildNode(1L, newNode);
+        
+        // then
+        assertEquals(103L, newNode.getC_left());
+        assertEquals(203L, newNode.getC_right());
+        assertEquals(1000L, rootNode.getC_right());
+        verify(treeNodeDao, never()).shiftBoundaries(anyLong(), anyLong());
+    }
+
+    @Test
+    void testNewSparseLeafReportsNoChild() {
+        // given: 희소 번호 모드에서 새 잎 노드는 여유 공간만큼 넓은 구간을 받음
+        ReflectionTestUtils.setField(treeNodeService, "sparseGap", 100L);
+        rootNode.setC_right(1000L);
+        childNode.setC_right(102L);
+        TreeNode newNode = new TreeNode();
+        newNode.setC_title("새 자식 노드");
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.findChildrenByParentId(1L))
+                .thenReturn(Arrays.asList(childNode), Arrays.asList(childNode, newNode));
+        when(treeNodeDao.allocateOrder(1L, 1, null)).thenReturn(2048.0);
+        doAnswer(invocation -> {
+            ((TreeNode) invocation.getArgument(0)).setC_id(3L);
+            return null;
+        }).when(treeNodeDao).save(any(TreeNode.class));
+        when(treeNodeDao.findIdsWithChildren(Arrays.asList(2L, 3L))).thenReturn(Collections.emptySet());
+        treeNodeService.addChildNode(1L, newNode);
+        
+        // when
+        treeNodeService.getChildNodes(1L);
+        
+        // then: 구간 폭이 아니라 실제 자식 유무로 판단
+        assertEquals(203L, newNode.getC_right());
+        assertEquals("NoChild", newNode.getChildcount());
+        assertEquals("leafNode", newNode.getState());
+        assertEquals("NoChild", childNode.getChildcount());
+    }
+
+    @Test
+    void testMoveNodeRenumbersOnlyAffectedWindow() {
+        // given: 루트[1,8] 아래 자식[2,3], 폴더[4,7], 폴더의 자식[5,6]
+        rootNode.setC_right(8L);
+        TreeNode folderNode = new TreeNode();
+        folderNode.setC_id(3L);
+        folderNode.setC_parentid(1L);
+        folderNode.setC_position("1");
+        folderNode.setC_left(4L);
+        folderNode.setC_right(7L);
+        folderNode.setC_level(1);
+        TreeNode folderChild = new TreeNode();
+        folderChild.setC_id(4L);
+        folderChild.setC_parentid(3L);
+        folderChild.setC_position("0");
+        folderChild.setC_left(5L);
+        folderChild.setC_right(6L);
+        folderChild.setC_level(2);
+        when(treeNodeDao.getById(2L)).thenReturn(childNode);
+        when(treeNodeDao.getById(3L)).thenReturn(folderNode);
+        when(treeNodeDao.findChildrenByParentId(3L)).thenReturn(Arrays.asList(folderChild));
+        when(treeNodeDao.allocateOrder(3L, 1, 2L)).thenReturn(2048.0);
+        
+        // when: 자식 노드를 폴더의 마지막 자식으로 이동
+        treeNodeService.moveNode(2L, 3L, "last");
+        
+        // then
+        verify(treeNodeDao, times(1)).moveSubtree(2L, 3L, 7L, 1);
+        verify(treeNodeDao, never()).shiftBoundaries(anyLong(), anyLong());
+        assertEquals(3L, childNode.getC_parentid());
+        assertEquals("1", childNode.getC_position());
+        assertEquals(2048.0, childNode.getC_order());
+        assertEquals(5L, childNode.getC_left());
+        assertEquals(6L, childNode.getC_right());
+        assertEquals(2, childNode.getC_level());
+    }
+
+    @Test
+    void testDeleteNodeRemovesRangeAndClosesGap() {
+        // given
+        when(treeNodeDao.getById(2L)).thenReturn(childNode);
+        
+        // when
+        treeNodeService.deleteNode(2L);
+        
+        // then
+        verify(treeNodeDao, times(1)).deleteRange(2L, 3L);
+        verify(treeNodeDao, times(1)).shiftBoundaries(4L, -2L);
+        verify(treeNodeDao, never()).delete(any(TreeNode.class));
+    }
+
+    @Test
+    void testDeleteNodeInChunksClosesGapsWithinEachChunk() {
+        // given: 노드[1,12]의 자손 중 c_left가 6 이상인 것을 지우면 조상들의 right 8, 10이 남는다
+        TreeNode node = new TreeNode();
+        node.setC_id(1L);
+        node.setC_left(1L);
+        node.setC_right(12L);
+        when(treeNodeDao.getById(1L)).thenReturn(node, (TreeNode) null);
+        when(treeNodeDao.findChunkStart(1L, 12L, 3)).thenReturn(6L);
+        when(treeNodeDao.findEnclosingRights(6L, 11L)).thenReturn(Arrays.asList(8L, 10L));
+        when(treeNodeDao.deleteRange(6L, 11L)).thenReturn(3);
+        
+        // when
+        treeNodeService.deleteNodeInChunks(1L, 3);
+        
+        // then: [6,7], [9], [11] 구간을 같은 트랜잭션에서 닫는다
+        InOrder order = inOrder(treeNodeDao);
+        order.verify(treeNodeDao).deleteRange(6L, 11L);
+        order.verify(treeNodeDao).shiftBoundariesAt(Arrays.asList(6L, 9L, 11L), Arrays.asList(-2L, -1L, -1L));
+    }
+
+    @Test
+    void testDeleteNodeInChunksHonoursChunkSizeInClosureTable() {
+        // given
+        when(storageEngineResolver.isClosureTable()).thenReturn(true);
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeClosureDao.findDeepestDescendantIds(1L, 2))
+                .thenReturn(Arrays.asList(5L, 4L), Arrays.asList(2L), Collections.emptyList());
+        when(treeNodeClosureDao.deleteNodes(any())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        
+        // when
+        treeNodeService.deleteNodeInChunks(1L, 2);
+        
+        // then: 깊은 자손부터 두 개씩 지운 뒤 노드 자신을 지운다
+        InOrder order = inOrder(treeNodeClosureDao);
+        order.verify(treeNodeClosureDao).deleteNodes(Arrays.asList(5L, 4L));
+        order.verify(treeNodeClosureDao).deleteNodes(Arrays.asList(2L));
+        order.verify(treeNodeClosureDao).deleteSubtree(1L);
+    }
+
+    @Test
+    void testCopyNodeClonesRangeInBulk() {
+        // given
+        TreeNode clonedNode = childNode.copy();
+        clonedNode.setC_id(5L);
+        clonedNode.setC_left(4L);
+        clonedNode.setC_right(5L);
+        when(treeNodeDao.getById(2L)).thenReturn(childNode);
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.findChildrenByParentId(1L)).thenReturn(Arrays.asList(childNode));
+        when(treeNodeDao.findByLeft(4L)).thenReturn(clonedNode);
+        when(treeNodeDao.allocateOrder(1L, 1, 5L)).thenReturn(2048.0);
+        
+        // when
+        Long newId = treeNodeService.copyNode(2L, 1L, "last");
+        
+        // then
+        assertEquals(5L, newId);
+        verify(treeNodeDao, times(1)).shiftBoundaries(4L, 2L);
+        verify(treeNodeDao, times(1)).cloneRange(2L, 3L, 2L, 0);
+        verify(treeNodeDao, times(1)).remapClonedParents(4L, 5L, 2L);
+        verify(treeNodeDao, never()).save(any(TreeNode.class));
+        assertEquals(1L, clonedNode.getC_parentid());
+        assertEquals("1", clonedNode.getC_position());
+    }
+
+    @Test
+    void testAddChildNodeAppendsIdToParentPath() {
+        // given
+        ReflectionTestUtils.setField(treeNodeService, "materializedPath", true);
+        rootNode.setC_path("/1/");
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.findChildrenByParentId(1L)).thenReturn(Arrays.asList(childNode));
+        when(treeNodeDao.allocateOrder(1L, 1, null)).thenReturn(2048.0);
+        doAnswer(invocation -> {
+            ((TreeNode) invocation.getArgument(0)).setC_id(3L);
+            return null;
+        }).when(treeNodeDao).save(any(TreeNode.class));
+        TreeNode newNode = new TreeNode();
+        newNode.setC_title("새 자식 노드");
+        
+        // when
+        treeNodeService.addChildNode(1L, newNode);
+        
+        // then
+        assertEquals("/1/3/", newNode.getC_path());
+    }
+
+    @Test
+    void testMoveNodeReplacesPathPrefixOfSubtree() {
+        // given: 루트[1,8] 아래 자식[2,3], 폴더[4,7], 폴더의 자식[5,6]
+        ReflectionTestUtils.setField(treeNodeService, "materializedPath", true);
+        rootNode.setC_right(8L);
+        childNode.setC_path("/1/2/");
+        TreeNode folderNode = new TreeNode();
+        folderNode.setC_id(3L);
+        folderNode.setC_parentid(1L);
+        folderNode.setC_left(4L);
+        folderNode.setC_right(7L);
+        folderNode.setC_level(1);
+        folderNode.setC_path("/1/3/");
+        TreeNode folderChild = new TreeNode();
+        folderChild.setC_id(4L);
+        folderChild.setC_parentid(3L);
+        folderChild.setC_left(5L);
+        folderChild.setC_right(6L);
+        folderChild.setC_level(2);
+        when(treeNodeDao.getById(2L)).thenReturn(childNode);
+        when(treeNodeDao.getById(3L)).thenReturn(folderNode);
+        when(treeNodeDao.findChildrenByParentId(3L)).thenReturn(Arrays.asList(folderChild));
+        when(treeNodeDao.allocateOrder(3L, 1, 2L)).thenReturn(2048.0);
+        
+        // when
+        treeNodeService.moveNode(2L, 3L, "last");
+        
+        // then: 하위 트리 전체의 경로 접두사를 한 번에 교체
+        verify(treeNodeDao, times(1)).replacePathPrefix("/1/2/", "/1/3/2/");
+        assertEquals("/1/3/2/", childNode.getC_path());
+    }
+
+    @Test
+    void testCopyNodeRebuildsPathsOfClones() {
+        // given
+        ReflectionTestUtils.setField(treeNodeService, "materializedPath", true);
+        rootNode.setC_path("/1/");
+        childNode.setC_path("/1/2/");
+        TreeNode clonedNode = childNode.copy();
+        clonedNode.setC_id(5L);
+        clonedNode.setC_left(4L);
+        clonedNode.setC_right(5L);
+        when(treeNodeDao.getById(2L)).thenReturn(childNode);
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.findChildrenByParentId(1L)).thenReturn(Arrays.asList(childNode));
+        when(treeNodeDao.findByLeft(4L)).thenReturn(clonedNode);
+        when(treeNodeDao.allocateOrder(1L, 1, 5L)).thenReturn(2048.0);
+        
+        // when
+        treeNodeService.copyNode(2L, 1L, "last");
+        
+        // then: 복제본 최상위 노드는 새 ID로 경로를 받고, 그 아래는 위에서부터 다시 계산
+        assertEquals("/1/5/", clonedNode.getC_path());
+        verify(treeNodeDao, times(1)).rebuildPaths(4L, 5L);
+    }
+
+    @Test
+    void testAddChildNodeInClosureTableDoesNotShiftBoundaries() {
+        // given
+        when(storageEngineResolver.isClosureTable()).thenReturn(true);
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.findChildrenByParentId(1L)).thenReturn(Arrays.asList(childNode));
+        when(treeNodeDao.allocateOrder(1L, 1, null)).thenReturn(2048.0);
+        doAnswer(invocation -> {
+            ((TreeNode) invocation.getArgument(0)).setC_id(3L);
+            return null;
+        }).when(treeNodeDao).save(any(TreeNode.class));
+        TreeNode newNode = new TreeNode();
+        newNode.setC_title("새 자식 노드");
+        
+        // when
+        Long newId = treeNodeService.addChildNode(1L, newNode);
+        
+        // then
+        assertEquals(3L, newId);
+        assertEquals("1", newNode.getC_position());
+        assertEquals(1, newNode.getC_level());
+        verify(treeNodeClosureDao, times(1)).insertNode(3L, 1L);
+        verify(treeNodeDao, never()).shiftBoundaries(anyLong(), anyLong());
+    }
+
+    @Test
+    void testMoveNodeInClosureTableRelinksAncestors() {
+        // given: 루트 아래 자식, 폴더가 있고 자식을 폴더 아래로 이동
+        TreeNode folderNode = new TreeNode();
+        folderNode.setC_id(3L);
+        folderNode.setC_parentid(1L);
+        folderNode.setC_position("1");
+        folderNode.setC_level(1);
+        when(storageEngineResolver.isClosureTable()).thenReturn(true);
+        when(treeNodeDao.getById(2L)).thenReturn(childNode);
+        when(treeNodeDao.getById(3L)).thenReturn(folderNode);
+        when(treeNodeClosureDao.isDescendant(2L, 3L)).thenReturn(false);
+        when(treeNodeDao.findChildrenByParentId(3L)).thenReturn(Arrays.asList());
+        when(treeNodeDao.allocateOrder(3L, 0, 2L)).thenReturn(1024.0);
+        
+        // when
+        treeNodeService.moveNode(2L, 3L, "last");
+        
+        // then
+        verify(treeNodeClosureDao, times(1)).moveSubtree(2L, 3L);
+        verify(treeNodeClosureDao, times(1)).shiftLevels(2L, 1);
+        verify(treeNodeDao, never()).moveSubtree(anyLong(), anyLong(), anyLong(), any());
+        assertEquals(3L, childNode.getC_parentid());
+        assertEquals(2, childNode.getC_level());
+    }
+
+    @Test
+    void testCopyNodeInClosureTableCopiesSubtreeInOneStep() {
+        // given: 루트 아래 자식을 폴더 아래로 복사
+        TreeNode folderNode = new TreeNode();
+        folderNode.setC_id(3L);
+        folderNode.setC_parentid(1L);
+        folderNode.setC_level(1);
+        TreeNode copiedNode = new TreeNode();
+        copiedNode.setC_id(9L);
+        copiedNode.setC_parentid(3L);
+        copiedNode.setC_position("0");
+        when(storageEngineResolver.isClosureTable()).thenReturn(true);
+        when(treeNodeDao.getById(2L)).thenReturn(childNode);
+        when(treeNodeDao.getById(3L)).thenReturn(folderNode);
+        when(treeNodeClosureDao.isDescendant(2L, 3L)).thenReturn(false);
+        when(treeNodeDao.findChildrenByParentId(3L)).thenReturn(Arrays.asList(new TreeNode()));
+        when(treeNodeDao.allocateOrder(3L, 1, null)).thenReturn(2048.0);
+        when(treeNodeClosureDao.copySubtree(2L, 3L, 1)).thenReturn(9L);
+        when(treeNodeDao.getById(9L)).thenReturn(copiedNode);
+        
+        // when
+        Long newId = treeNodeService.copyNode(2L, 3L, "last");
+        
+        // then: 노드별 저장 없이 하위 트리를 한 번에 복제하고 최상위 노드의 위치만 맞춘다
+        assertEquals(9L, newId);
+        assertEquals("1", copiedNode.getC_position());
+        verify(treeNodeDao, never()).save(any(TreeNode.class));
+        verify(treeNodeClosureDao, never()).insertNode(anyLong(), anyLong());
+        verify(treeNodeDao, times(1)).update(copiedNode);
+    }
+
+    @Test
+    void testChildStateInClosureTableComesFromParentIds() {
+        // given: 클로저 테이블 방식에서는 경계값이 모두 0
+        TreeNode leafNode = new TreeNode();
+        leafNode.setC_id(2L);
+        leafNode.setC_left(0L);
+        leafNode.setC_right(0L);
+        TreeNode folderNode = new TreeNode();
+        folderNode.setC_id(3L);
+        folderNode.setC_left(0L);
+        folderNode.setC_right(0L);
+        when(storageEngineResolver.isClosureTable()).thenReturn(true);
+        when(treeNodeDao.findChildrenByParentId(1L)).thenReturn(Arrays.asList(leafNode, folderNode));
+        when(treeNodeDao.findIdsWithChildren(Arrays.asList(2L, 3L))).thenReturn(Collections.singleton(3L));
+        
+        // when
+        treeNodeService.getChildNodes(1L);
+        
+        // then
+        assertEquals("NoChild", leafNode.getChildcount());
+        assertEquals("leafNode", leafNode.getState());
+        assertEquals("InChild", folderNode.getChildcount());
+        assertEquals("closed", folderNode.getState());
+    }
+
+    @Test
+    void testStreamedNodesInClosureTableGetChildState() {
+        // given: 두 건씩 읽는 동안 루트[1], 그 아래 폴더[3], 폴더의 자식[4]가 흘러나옴
+        ReflectionTestUtils.setField(treeNodeService, "streamFetchSize", 2);
+        TreeNode folderNode = new TreeNode();
+        folderNode.setC_id(3L);
+        folderNode.setC_left(0L);
+        folderNode.setC_right(0L);
+        TreeNode leafNode = new TreeNode();
+        leafNode.setC_id(4L);
+        leafNode.setC_left(0L);
+        leafNode.setC_right(0L);
+        rootNode.setC_left(0L);
+        rootNode.setC_right(0L);
+        when(storageEngineResolver.isClosureTable()).thenReturn(true);
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.scrollDescendants(eq(rootNode), eq(2), any())).thenAnswer(invocation -> {
+            Consumer<TreeNode> consumer = invocation.getArgument(2);
+            consumer.accept(rootNode);
+            consumer.accept(folderNode);
+            consumer.accept(leafNode);
+            return 3L;
+        });
+        when(treeNodeDao.findIdsWithChildren(Arrays.asList(1L, 3L))).thenReturn(new HashSet<>(Arrays.asList(1L, 3L)));
+        when(treeNodeDao.findIdsWithChildren(Arrays.asList(4L))).thenReturn(Collections.emptySet());
+        List<String> states = new ArrayList<>();
+        
+        // when
+        long count = treeNodeService.streamDescendants(1L, node -> states.add(node.getC_id() + ":" + node.getChildcount()));
+        
+        // then: fetch 단위마다 한 번 조회하여 표시한 뒤 순서대로 전달
+        assertEquals(3L, count);
+        assertEquals(Arrays.asList("1:InChild", "3:InChild", "4:NoChild"), states);
+    }
+
+    @Test
+    void testAddChildNodesShiftsBoundariesOnceForWholeBatch() {
+        // given: 두 번째 노드는 하위 노드 하나를 함께 가짐
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.findChildrenByParentId(1L)).thenReturn(Arrays.asList(childNode));
+        when(treeNodeDao.allocateOrder(1L, 1, null)).thenReturn(2048.0);
+        TreeNode first = new TreeNode();
+        TreeNode second = new TreeNode();
+        TreeNode grandChild = new TreeNode();
+        second.setChildren(Arrays.asList(grandChild));
+        
+        // when
+        treeNodeService.addChildNodes(1L, Arrays.asList(first, second));
+        
+        // then
+        verify(treeNodeDao, times(1)).shiftBoundariesAt(Arrays.asList(4L), Arrays.asList(6L));
+        verify(treeNodeDao, never()).shiftBoundaries(anyLong(), anyLong());
+        verify(treeNodeDao, times(3)).save(any(TreeNode.class));
+        assertEquals(10L, rootNode.getC_right());
+        assertEquals(4L, first.getC_left());
+        assertEquals(5L, first.getC_right());
+        assertEquals(6L, second.getC_left());
+        assertEquals(9L, second.getC_right());
+        assertEquals(7L, grandChild.getC_left());
+        assertEquals(8L, grandChild.getC_right());
+        assertEquals(2, grandChild.getC_level());
+        assertEquals("2", second.getC_position());
+        assertEquals(3072.0, second.getC_order());
+    }
+
+    @Test
+    void testDeleteNodeLocksTreeBeforeReadingBoundaries() {
+        // given
+        when(treeNodeDao.getById(2L)).thenReturn(childNode);
+        
+        // when
+        treeNodeService.deleteNode(2L);
+        
+        // then
+        InOrder order = inOrder(writeCoordinator, treeNodeDao);
+        order.verify(writeCoordinator).lockCurrentTree();
+        order.verify(treeNodeDao).getById(2L);
+        order.verify(treeNodeDao).deleteRange(2L, 3L);
+    }
+
+    @Test
+    void testAddChildNodesToParentsMergesShiftsIntoOneUpdate() {
+        // given: 루트[1,8] 아래 자식[2,3], 폴더[4,7], 폴더의 자식[5,6]에 각각 노드 추가
+        rootNode.setC_right(8L);
+        TreeNode folderNode = new TreeNode();
+        folderNode.setC_id(3L);
+        folderNode.setC_left(4L);
+        folderNode.setC_right(7L);
+        folderNode.setC_level(1);
+        TreeNode folderChild = new TreeNode();
+        folderChild.setC_id(4L);
+        folderChild.setC_left(5L);
+        folderChild.setC_right(6L);
+        when(treeNodeDao.getById(2L)).thenReturn(childNode);
+        when(treeNodeDao.getById(3L)).thenReturn(folderNode);
+        when(treeNodeDao.findChildrenByParentId(2L)).thenReturn(Arrays.asList());
+        when(treeNodeDao.findChildrenByParentId(3L)).thenReturn(Arrays.asList(folderChild));
+        when(treeNodeDao.allocateOrder(2L, 0, null)).thenReturn(1024.0);
+        when(treeNodeDao.allocateOrder(3L, 1, null)).thenReturn(2048.0);
+        TreeNode underChild = new TreeNode();
+        TreeNode underFolder = new TreeNode();
+        Map<Long, List<TreeNode>> nodesByParent = new LinkedHashMap<>();
+        nodesByParent.put(2L, Arrays.asList(underChild));
+        nodesByParent.put(3L, Arrays.asList(underFolder));
+        
+        // when
+        treeNodeService.addChildNodesToParents(nodesByParent);
+        
+        // then
+        verify(treeNodeDao, times(1)).shiftBoundariesAt(Arrays.asList(3L, 7L), Arrays.asList(2L, 2L));
+        assertEquals(3L, underChild.getC_left());
+        assertEquals(4L, underChild.getC_right());
+        assertEquals(5L, childNode.getC_right());
+        assertEquals(9L, underFolder.getC_left());
+        assertEquals(10L, underFolder.getC_right());
+        assertEquals(6L, folderNode.getC_left());
+        assertEquals(11L, folderNode.getC_right());
+    }
+
+    @Test
+    void testGetSubtreeNestsNodesFromOneRangeQuery() {
+        // given: 루트[1,8] 아래 자식[2,3], 폴더[4,7], 폴더의 자식[5,6]
+        rootNode.setC_right(8L);
+        TreeNode folderNode = new TreeNode();
+        folderNode.setC_id(3L);
+        folderNode.setC_left(4L);
+        folderNode.setC_right(7L);
+        TreeNode folderChild = new TreeNode();
+        folderChild.setC_id(4L);
+        folderChild.setC_left(5L);
+        folderChild.setC_right(6L);
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.findNodesInRange(1L, 8L)).thenReturn(Arrays.asList(rootNode, childNode, folderNode, folderChild));
+        
+        // when
+        TreeNode result = treeNodeService.getSubtree(1L);
+        
+        // then
+        assertEquals(rootNode, result);
+        assertEquals(Arrays.asList(childNode, folderNode), result.getChildren());
+        assertEquals(0, childNode.getChildren().size());
+        assertEquals(Arrays.asList(folderChild), folderNode.getChildren());
+        verify(treeNodeDao, never()).findChildrenByParentId(anyLong());
+    }
+
+    @Test
+    void testGetSubtreeLimitsDepthInQuery() {
+        // given: 깊이 1까지만 조회되므로 루트와 직계 자식만 반환된다
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.findDescendants(rootNode, 1)).thenReturn(Arrays.asList(rootNode, childNode));
+        
+        // when
+        TreeNode result = treeNodeService.getSubtree(1L, 1);
+        
+        // then
+        assertEquals(Arrays.asList(childNode), result.getChildren());
+        verify(treeNodeDao, never()).findNodesInRange(anyLong(), anyLong());
+        assertThrows(IllegalArgumentException.class, () -> treeNodeService.getDescendants(1L, 0));
+    }
+
+    @Test
+    void testGetDescendantSummariesUsesProjection() {
+        // given
+        TreeNodeSummary summary = new TreeNodeSummary(2L, 1L, 2L, 3L, 1, "자식 노드", null);
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.findDescendantSummaries(rootNode)).thenReturn(Arrays.asList(summary));
+        
+        // when
+        List<TreeNodeSummary> result = treeNodeService.getDescendantSummaries(1L);
+        
+        // then
+        assertEquals(Arrays.asList(summary), result);
+        verify(treeNodeDao, never()).findDescendants(any(TreeNode.class));
+    }
+
+    @Test
+    void testExpandChildrenGroupsOneQueryByParent() {
+        // given: 부모 1의 자식만 있고 부모 7은 비어 있다
+        TreeNodeChildSummary folder = new TreeNodeChildSummary(2L, 1L, 2L, 7L, 1, "폴더", null, 2L);
+        TreeNodeChildSummary leaf = new TreeNodeChildSummary(5L, 1L, 8L, 9L, 1, "파일", null, 0L);
+        when(treeNodeDao.findChildSummaries(Arrays.asList(1L, 7L), true)).thenReturn(Arrays.asList(folder, leaf));
+        
+        // when
+        Map<Long, List<TreeNodeChildSummary>> result = treeNodeService.expandChildren(Arrays.asList(1L, 7L));
+        
+        // then
+        assertEquals(Arrays.asList(1L, 7L), new ArrayList<>(result.keySet()));
+        assertEquals(Arrays.asList(folder, leaf), result.get(1L));
+        assertEquals(0, result.get(7L).size());
+        assertEquals(true, folder.isHasChildren());
+        assertEquals(false, leaf.isHasChildren());
+        verify(treeNodeDao, times(1)).findChildSummaries(any(), eq(true));
+    }
+
+    @Test
+    void testGetAncestorsOfResolvesAllBreadcrumbsInOneQuery() {
+        // given: 노드 2의 경로만 조회되고 99는 존재하지 않는다
+        TreeNodeSummary root = new TreeNodeSummary(1L, 0L, 1L, 4L, 0, "루트 노드", null);
+        TreeNodeSummary child = new TreeNodeSummary(2L, 1L, 2L, 3L, 1, "자식 노드", null);
+        Map<Long, List<TreeNodeSummary>> found = new LinkedHashMap<>();
+        found.put(2L, Arrays.asList(root, child));
+        when(treeNodeDao.findAncestorSummaries(Arrays.asList(99L, 2L))).thenReturn(found);
+        
+        // when
+        Map<Long, List<TreeNodeSummary>> result = treeNodeService.getAncestorsOf(Arrays.asList(99L, 2L));
+        
+        // then
+        assertEquals(Arrays.asList(99L, 2L), new ArrayList<>(result.keySet()));
+        assertEquals(0, result.get(99L).size());
+        assertEquals(Arrays.asList(root, child), result.get(2L));
+        verify(treeNodeDao, never()).getById(anyLong());
+    }
+
+    @Test
+    void testSummaryReadsAreServedFromSnapshot() {
+        // given: 루트(1) 아래 폴더(2), 문서(4), 폴더 아래 문서(3)
+        TreeNodeSummary root = new TreeNodeSummary(1L, 0L, 1L, 8L, 0, "루트 노드", "folder");
+        TreeNodeSummary folder = new TreeNodeSummary(2L, 1L, 2L, 5L, 1, "폴더", "folder");
+        TreeNodeSummary nested = new TreeNodeSummary(3L, 2L, 3L, 4L, 2, "문서", "file");
+        TreeNodeSummary leaf = new TreeNodeSummary(4L, 1L, 6L, 7L, 1, "문서", "file");
+        TreeSnapshot snapshot = TreeSnapshot.of(Arrays.asList(root, folder, leaf, nested));
+        when(snapshotRegistry.current()).thenReturn(snapshot);
+        
+        // when
+        List<TreeNodeSummary> children = treeNodeService.getChildSummaries(1L);
+        List<TreeNodeSummary> descendants = treeNodeService.getDescendantSummaries(1L);
+        Map<Long, List<TreeNodeSummary>> breadcrumbs = treeNodeService.getAncestorsOf(Arrays.asList(3L, 99L));
+        Map<Long, List<TreeNodeChildSummary>> expanded = treeNodeService.expandChildren(Arrays.asList(1L));
+        TreeNodeStats stats = treeNodeService.getSubtreeStats(1L);
+        
+        // then
+        assertEquals(Arrays.asList(folder, leaf), children);
+        assertEquals(Arrays.asList(root, folder, nested, leaf), descendants);
+        assertEquals(Arrays.asList(root, folder, nested), breadcrumbs.get(3L));
+        assertEquals(0, breadcrumbs.get(99L).size());
+        assertEquals(1, expanded.get(1L).get(0).getDescendantCount());
+        assertEquals(false, expanded.get(1L).get(1).isHasChildren());
+        assertEquals(3, stats.getDescendantCount());
+        assertEquals(2, stats.getMaxDepth());
+        assertEquals(2, stats.getLeafCount());
+        assertEquals(Long.valueOf(2L), stats.getCountByType().get("file"));
+        verify(treeNodeDao, never()).getById(anyLong());
+        verify(treeNodeDao, never()).findChildSummaries(anyLong());
+        verify(treeNodeDao, never()).findAncestorSummaries(any());
+    }
+
+    @Test
+    void testGetSubtreeStatsAggregatesInDatabase() {
+        // given
+        Map<String, Long> byType = new LinkedHashMap<>();
+        byType.put("folder", 1L);
+        TreeNodeStats stats = new TreeNodeStats(1L, 1, 1, 1, byType);
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.findSubtreeStats(rootNode, true)).thenReturn(stats);
+        
+        // when
+        TreeNodeStats result = treeNodeService.getSubtreeStats(1L);
+        
+        // then
+        assertEquals(stats, result);
+        verify(treeNodeDao, never()).findDescendants(any(TreeNode.class));
+    }
+
+    @Test
+    void testGetSubtreeStatsOfDenseLeafSkipsQuery() {
+        // given
+        when(treeNodeDao.getById(2L)).thenReturn(childNode);
+        
+        // when
+        TreeNodeStats result = treeNodeService.getSubtreeStats(2L);
+        
+        // then
+        assertEquals(0, result.getDescendantCount());
+        verify(treeNodeDao, never()).findSubtreeStats(any(TreeNode.class), eq(true));
+    }
+
+    @Test
+    void testStreamDescendantsScrollsWithFixedFetchSize() {
+        // given
+        ReflectionTestUtils.setField(treeNodeService, "streamFetchSize", 500);
+        List<TreeNode> received = new ArrayList<>();
+        when(treeNodeDao.getById(1L)).thenReturn(rootNode);
+        when(treeNodeDao.scrollDescendants(eq(rootNode), eq(500), any())).thenAnswer(invocation -> {
+            Consumer<TreeNode> consumer = invocation.getArgument(2);
+            consumer.accept(rootNode);
+            consumer.accept(childNode);
+            return 2L;
+        });
+        
+        // when
+        long count = treeNodeService.streamDescendants(1L, received::add);
+        
+        // then
+        assertEquals(2L, count);
+        assertEquals(Arrays.asList(rootNode, childNode), received);
+        verify(treeNodeDao, never()).findDescendants(any(TreeNode.class));
+    }
+}
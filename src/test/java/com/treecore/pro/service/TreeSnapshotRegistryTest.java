@@ -0,0 +1,172 @@
+package com.treecore.pro.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.treecore.pro.dao.TreeNodeDao;
+import com.treecore.pro.interceptor.RouteTableInterceptor;
+import com.treecore.pro.model.TreeNodeSummary;
+import com.treecore.pro.model.TreeSnapshot;
+
+@ExtendWith(MockitoExtension.class)
+public class TreeSnapshotRegistryTest {
+
+    @Mock
+    private TreeNodeDao treeNodeDao;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TreeSnapshotRegistry registry;
+
+    /** 스냅샷을 만들 때의 스레드 이름과 트리 테이블 이름 */
+    private final List<String> builds = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        registry = new TreeSnapshotRegistry(treeNodeDao, transactionManager);
+        ReflectionTestUtils.setField(registry, "enabled", true);
+        ReflectionTestUtils.setField(registry, "minRebuildIntervalMillis", 300L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RouteTableInterceptor.clearCurrentTreeNodeTableName();
+        registry.shutdown();
+    }
+
+    @Test
+    void testFirstReadSchedulesBuildOffRequestThread() throws Exception {
+        // given
+        when(treeNodeDao.findAllSummaries()).thenAnswer(invocation -> {
+            builds.add(Thread.currentThread().getName() + ":" + RouteTableInterceptor.getCurrentTreeNodeTableName());
+            return List.of(summary(1L, 0L, 1L, 2L));
+        });
+        RouteTableInterceptor.setCurrentTreeNodeTableName("tree_node_a");
+
+        // when: 처음 조회하면 만들기만 예약하고 호출자는 DB로 조회함
+        TreeSnapshot first = registry.current();
+
+        // then: 별도 스레드에서 요청한 테이블로 만들어진 뒤부터 제공됨
+        assertNull(first);
+        TreeSnapshot built = awaitSnapshot(registry::current);
+        assertEquals(1, built.size());
+        assertEquals(List.of("tree-snapshot:tree_node_a"), builds);
+    }
+
+    @Test
+    void testStaleSnapshotIsServedUntilRebuilt() throws Exception {
+        // given
+        when(treeNodeDao.findAllSummaries())
+                .thenReturn(List.of(summary(1L, 0L, 1L, 2L)))
+                .thenReturn(List.of(summary(1L, 0L, 1L, 4L), summary(2L, 1L, 2L, 3L)));
+        registry.current();
+        TreeSnapshot stale = awaitSnapshot(registry::current);
+
+        // when
+        registry.treeChanged(RouteTableInterceptor.getCurrentTreeNodeTableName());
+
+        // then: 최소 간격이 지나기 전에는 이전 스냅샷을 그대로 제공하고, 이후 새 스냅샷으로 바뀜
+        assertSame(stale, registry.current());
+        TreeSnapshot rebuilt = awaitSnapshot(() -> {
+            TreeSnapshot snapshot = registry.current();
+            return snapshot == stale ? null : snapshot;
+        });
+        assertEquals(2, rebuilt.size());
+    }
+
+    @Test
+    void testChangesWithinIntervalAreCoalesced() throws Exception {
+        // given
+        when(treeNodeDao.findAllSummaries()).thenReturn(List.of(summary(1L, 0L, 1L, 2L)));
+        registry.current();
+        awaitSnapshot(registry::current);
+        String tableName = RouteTableInterceptor.getCurrentTreeNodeTableName();
+
+        // when: 최소 간격 안에 여러 번 커밋됨
+        registry.treeChanged(tableName);
+        registry.treeChanged(tableName);
+        registry.treeChanged(tableName);
+        Thread.sleep(900L);
+
+        // then: 한 번만 다시 만듦
+        verify(treeNodeDao, times(2)).findAllSummaries();
+    }
+
+    @Test
+    void testFailedBuildFallsBackToDatabase() throws Exception {
+        // given
+        when(treeNodeDao.findAllSummaries())
+                .thenReturn(List.of(summary(1L, 0L, 1L, 2L)))
+                .thenThrow(new IllegalStateException("connection lost"));
+        registry.current();
+        awaitSnapshot(registry::current);
+
+        // when
+        registry.treeChanged(RouteTableInterceptor.getCurrentTreeNodeTableName());
+
+        // then: 실패하면 오래된 스냅샷을 버려 호출자가 DB에서 조회함
+        assertTrue(awaitCondition(() -> registry.current() == null));
+    }
+
+    @Test
+    void testDisabledRegistryNeverBuilds() throws Exception {
+        // given
+        ReflectionTestUtils.setField(registry, "enabled", false);
+
+        // when
+        TreeSnapshot snapshot = registry.current();
+        registry.treeChanged(RouteTableInterceptor.getCurrentTreeNodeTableName());
+        Thread.sleep(100L);
+
+        // then
+        assertNull(snapshot);
+        verify(treeNodeDao, never()).findAllSummaries();
+    }
+
+    /**
+     * 스냅샷이 제공될 때까지 기다립니다.
+     */
+    private static TreeSnapshot awaitSnapshot(Supplier<TreeSnapshot> supplier) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        TreeSnapshot snapshot = supplier.get();
+        while (snapshot == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20L);
+            snapshot = supplier.get();
+        }
+        assertNotNull(snapshot);
+        return snapshot;
+    }
+
+    private static boolean awaitCondition(Supplier<Boolean> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (!condition.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20L);
+        }
+        return condition.get();
+    }
+
+    private static TreeNodeSummary summary(Long id, Long parentId, Long left, Long right) {
+        return new TreeNodeSummary(id, parentId, left, right, parentId == 0L ? 0 : 1, "노드 " + id, null);
+    }
+}
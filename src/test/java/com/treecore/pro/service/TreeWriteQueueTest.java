@@ -0,0 +1,180 @@
+package com.treecore.pro.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.treecore.pro.interceptor.RouteTableInterceptor;
+import com.treecore.pro.model.TreeNode;
+
+@ExtendWith(MockitoExtension.class)
+public class TreeWriteQueueTest {
+
+    @Mock
+    private TreeNodeService treeNodeService;
+
+    private TreeWriteQueue writeQueue;
+
+    /** 서비스가 발급할 다음 노드 ID */
+    private final AtomicLong nextId = new AtomicLong(100L);
+
+    /** 서비스가 호출될 때의 트리 테이블 이름 */
+    private final List<String> tableNames = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        writeQueue = new TreeWriteQueue(treeNodeService, 1);
+        ReflectionTestUtils.setField(writeQueue, "windowMillis", 200L);
+        ReflectionTestUtils.setField(writeQueue, "maxBatch", 500);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RouteTableInterceptor.clearCurrentTreeNodeTableName();
+        writeQueue.shutdown();
+    }
+
+    @Test
+    void testAdditionsWithinWindowAreCoalesced() throws Exception {
+        // given
+        when(treeNodeService.addChildNodesToParents(any())).thenAnswer(assignIds());
+
+        // when: 두 부모에 대한 세 요청이 대기 시간 안에 들어옴
+        CompletableFuture<Long> first = writeQueue.submitChild(1L, node("첫째"));
+        CompletableFuture<Long> second = writeQueue.submitChild(1L, node("둘째"));
+        CompletableFuture<Long> other = writeQueue.submitChild(2L, node("다른 부모"));
+
+        // then: 한 번의 호출로 부모별로 묶어 처리하고 각 Future를 생성된 ID로 완료
+        assertEquals(100L, first.get(5, TimeUnit.SECONDS));
+        assertEquals(101L, second.get(5, TimeUnit.SECONDS));
+        assertEquals(102L, other.get(5, TimeUnit.SECONDS));
+        verify(treeNodeService, times(1)).addChildNodesToParents(any());
+    }
+
+    @Test
+    void testFailedBatchIsRetriedOneByOne() throws Exception {
+        // given: 병합된 요청 중 하나가 잘못되어 전체가 롤백됨
+        TreeNode good = node("정상");
+        TreeNode bad = node("잘못된 요청");
+        when(treeNodeService.addChildNodesToParents(any())).thenAnswer(invocation -> {
+            Map<Long, List<TreeNode>> nodesByParent = invocation.getArgument(0);
+            if (nodesByParent.containsKey(9L)) {
+                throw new IllegalArgumentException("Parent node not found with id: 9");
+            }
+            return assignIds().answer(invocation);
+        });
+
+        // when
+        CompletableFuture<Long> goodFuture = writeQueue.submitChild(1L, good);
+        CompletableFuture<Long> badFuture = writeQueue.submitChild(9L, bad);
+
+        // then: 실패한 요청만 실패하고 나머지는 개별 처리로 추가됨
+        assertEquals(100L, goodFuture.get(5, TimeUnit.SECONDS));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> badFuture.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+        assertNull(bad.getC_id());
+        verify(treeNodeService, times(3)).addChildNodesToParents(any());
+    }
+
+    @Test
+    void testErrorCompletesAllFutures() {
+        // given
+        when(treeNodeService.addChildNodesToParents(any())).thenThrow(new AssertionError("boom"));
+
+        // when
+        CompletableFuture<Long> first = writeQueue.submitChild(1L, node("첫째"));
+        CompletableFuture<Long> second = writeQueue.submitChild(1L, node("둘째"));
+
+        // then: Error로 중단되어도 기다리는 요청이 남지 않음
+        ExecutionException e = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof AssertionError);
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testBatchesRunOnSubmittingThreadsTable() throws Exception {
+        // given
+        when(treeNodeService.addChildNodesToParents(any())).thenAnswer(invocation -> {
+            synchronized (tableNames) {
+                tableNames.add(RouteTableInterceptor.getCurrentTreeNodeTableName());
+            }
+            return assignIds().answer(invocation);
+        });
+
+        // when: 서로 다른 트리 테이블에서 들어온 요청
+        RouteTableInterceptor.setCurrentTreeNodeTableName("tree_node_a");
+        CompletableFuture<Long> first = writeQueue.submitChild(1L, node("a 트리"));
+        RouteTableInterceptor.setCurrentTreeNodeTableName("tree_node_b");
+        CompletableFuture<Long> second = writeQueue.submitChild(1L, node("b 트리"));
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        // then: 테이블마다 따로 묶여 요청한 스레드의 테이블에서 처리됨
+        verify(treeNodeService, times(2)).addChildNodesToParents(any());
+        assertEquals(2, tableNames.size());
+        assertTrue(tableNames.contains("tree_node_a"));
+        assertTrue(tableNames.contains("tree_node_b"));
+    }
+
+    @Test
+    void testSubmitAfterShutdownIsRejected() {
+        // given
+        writeQueue.shutdown();
+
+        // when
+        CompletableFuture<Long> future = writeQueue.submitChild(1L, node("종료 후 요청"));
+
+        // then
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        verify(treeNodeService, never()).addChildNodesToParents(any());
+    }
+
+    /**
+     * 요청 순서대로 노드에 ID를 매기고 부모별 ID 목록을 반환하는 응답
+     */
+    private Answer<Map<Long, List<Long>>> assignIds() {
+        return invocation -> {
+            Map<Long, List<TreeNode>> nodesByParent = invocation.getArgument(0);
+            Map<Long, List<Long>> ids = new LinkedHashMap<>();
+            for (Map.Entry<Long, List<TreeNode>> entry : nodesByParent.entrySet()) {
+                List<Long> parentIds = new ArrayList<>();
+                for (TreeNode node : entry.getValue()) {
+                    node.setC_id(nextId.getAndIncrement());
+                    parentIds.add(node.getC_id());
+                }
+                ids.put(entry.getKey(), parentIds);
+            }
+            return ids;
+        };
+    }
+
+    private static TreeNode node(String title) {
+        TreeNode node = new TreeNode();
+        node.setC_title(title);
+        return node;
+    }
+}
@@ -4,19 +4,44 @@ CREATE TABLE tree_node (
     c_id BIGINT PRIMARY KEY AUTO_INCREMENT,
     c_parentid BIGINT NOT NULL,
     c_position VARCHAR(50) NOT NULL,
+    c_order DOUBLE,
     c_left BIGINT NOT NULL,
     c_right BIGINT NOT NULL,
     c_level INT NOT NULL,
     c_title VARCHAR(255),
     c_type VARCHAR(50),
+    c_path VARCHAR(1000),
     c_insdate TIMESTAMP
 );
 
 -- 기본 인덱스 생성
 CREATE INDEX idx_tree_node_parent ON tree_node(c_parentid);
+CREATE INDEX idx_tree_node_parent_order ON tree_node(c_parentid, c_order);
 CREATE INDEX idx_tree_node_left_right ON tree_node(c_left, c_right);
+CREATE INDEX idx_tree_node_left_level ON tree_node(c_left, c_level);
 CREATE INDEX idx_tree_node_level ON tree_node(c_level);
+CREATE INDEX idx_tree_node_path ON tree_node(c_path);
+
+-- 클로저 테이블 생성
+DROP TABLE IF EXISTS tree_node_closure;
+CREATE TABLE tree_node_closure (
+    c_ancestor BIGINT NOT NULL,
+    c_descendant BIGINT NOT NULL,
+    c_depth INT NOT NULL,
+    PRIMARY KEY (c_ancestor, c_descendant)
+);
+CREATE INDEX idx_tree_node_closure_descendant ON tree_node_closure(c_descendant, c_depth);
+
+-- 제목 n-gram 색인 테이블 생성
+DROP TABLE IF EXISTS tree_node_ngram;
+CREATE TABLE tree_node_ngram (
+    c_gram VARCHAR(8) NOT NULL,
+    c_node_id BIGINT NOT NULL,
+    PRIMARY KEY (c_gram, c_node_id)
+);
+CREATE INDEX idx_tree_node_ngram_node ON tree_node_ngram(c_node_id);
 
 -- 초기 데이터 삽입 (루트 노드)
-INSERT INTO tree_node (c_id, c_parentid, c_position, c_left, c_right, c_level, c_title, c_type, c_insdate) 
-VALUES (1, 0, '0', 1, 2, 0, '루트 노드', 'root', CURRENT_TIMESTAMP()); 
\ No newline at end of file
+INSERT INTO tree_node (c_id, c_parentid, c_position, c_order, c_left, c_right, c_level, c_title, c_type, c_path, c_insdate) 
+VALUES (1, 0, '0', 1024, 1, 2, 0, '루트 노드', 'root', '/1/', CURRENT_TIMESTAMP());
+INSERT INTO tree_node_closure (c_ancestor, c_descendant, c_depth) VALUES (1, 1, 0);